@@ -1,7 +0,0 @@
-import java.util.concurrent.atomic.AtomicReference;
-
-public class Node
-{
-    public AtomicReference<Integer> value = new AtomicReference<Integer>(null);
-    public AtomicReference<Node> next = new AtomicReference<Node>(null);
-}
\ No newline at end of file
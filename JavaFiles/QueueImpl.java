@@ -1,8 +0,0 @@
-public interface QueueImpl 
-{
-    public void enqueue(TestQueue Q, Integer value);
-
-    public Integer dequeue(TestQueue Q);
-
-    public String getImplName();
-}
@@ -0,0 +1,114 @@
+package io.github.mattunlv.queue;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BatchQueueBenchmark.java
+ *
+ * JMH benchmark of enqueueAll/drainTo against the same elements moved one at a
+ * time, under the MPMC shape. Each benchmark call moves one batch. The elements
+ * counter reports elements moved per second, so batch sizes can be compared
+ * directly. A batch of 1 is the single-element baseline.
+ *
+ * Example:
+ * - ./gradlew jmh --args='BatchQueueBenchmark -tg 4,4'
+ */
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BatchQueueBenchmark
+{
+    @Param({"StructuredPaperQueue", "StructuredJDKQueue"})
+    public String impl;
+
+    @Param({"1", "16", "256"})
+    public int batch;
+
+    QueueImpl<Integer> queueImpl;
+    TestQueue<Integer> queue;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        switch (impl)
+        {
+            case "StructuredPaperQueue":
+                queueImpl = new StructuredPaperQueue<Integer>();
+                break;
+            case "StructuredJDKQueue":
+                queueImpl = new StructuredJDKQueue<Integer>();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+        queue = queueImpl.newQueue();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters
+    {
+        public long elements;
+        ArrayList<Integer> buffer = new ArrayList<Integer>();
+
+        @Setup(Level.Iteration)
+        public void reset(BatchQueueBenchmark benchmark)
+        {
+            elements = 0;
+            buffer.clear();
+            for (int i = 0; i < benchmark.batch; ++i)
+                buffer.add(i);
+        }
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public void enqueue(Counters counters)
+    {
+        if (batch == 1)
+            queueImpl.enqueue(queue, counters.buffer.get(0));
+        else
+            queueImpl.enqueueAll(queue, counters.buffer);
+        counters.elements += batch;
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public int dequeue(Counters counters)
+    {
+        int count;
+        if (batch == 1)
+            count = (queueImpl.dequeue(queue) != null) ? 1 : 0;
+        else
+        {
+            // A consumer thread's buffer is only used as the sink
+            counters.buffer.clear();
+            count = queueImpl.drainTo(queue, counters.buffer, batch);
+        }
+        counters.elements += count;
+        return count;
+    }
+}
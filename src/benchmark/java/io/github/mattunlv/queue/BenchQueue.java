@@ -0,0 +1,16 @@
+package io.github.mattunlv.queue;
+
+/**
+ * BenchQueue.java
+ *
+ * A queue as seen by the RunQueueBenchmarks producer and consumer threads, 
+ * bound to a single queue instance so that QueueImpls and the 
+ * ConcurrentLinkedQueue baseline can be run by the same code.
+ */
+
+interface BenchQueue
+{
+    public void enqueue(Integer value);
+
+    public Integer dequeue();
+}
@@ -0,0 +1,48 @@
+package io.github.mattunlv.queue;
+
+/**
+ * BenchResult.java
+ *
+ * The result of one RunQueueBenchmarks measurement: throughput, enqueue and 
+ * dequeue latency samples (sorted), allocation per operation and the garbage 
+ * collections during the run.
+ */
+
+class BenchResult
+{
+    String name;
+    Topology shape;
+    int producers;
+    int consumers;
+    double opsPerSecond;
+    double bytesPerOp;
+    long gcCount;
+    long gcMillis;
+    long[] enqueueLatency;
+    long[] dequeueLatency;
+
+    static String percentiles(long[] sorted)
+    {
+        if (sorted.length == 0)
+            return "-";
+        return String.format("p50=%d p99=%d p99.9=%d max=%d",
+            percentile(sorted, 50.0),
+            percentile(sorted, 99.0),
+            percentile(sorted, 99.9),
+            sorted[sorted.length - 1]);
+    }
+
+    static long percentile(long[] sorted, double p)
+    {
+        int index = (int)Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public String toString()
+    {
+        return String.format("%-24s %-4s %3dP %3dC %14.0f ops/s | enq ns %s | deq ns %s | %.1f B/op, %d GCs, %d ms",
+            name, shape, producers, consumers, opsPerSecond,
+            percentiles(enqueueLatency), percentiles(dequeueLatency),
+            bytesPerOp, gcCount, gcMillis);
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.mattunlv.queue;
+
+/**
+ * BenchTarget.java
+ *
+ * Something RunQueueBenchmarks can measure: it creates a fresh BenchQueue for 
+ * each run and names the rows of the results.
+ */
+
+interface BenchTarget
+{
+    public BenchQueue create(Topology topology);
+
+    public String getName();
+
+    // The contention counters of the implementation, or null if it has none
+    public default QueueMetrics getMetrics()
+    {
+        return null;
+    }
+}
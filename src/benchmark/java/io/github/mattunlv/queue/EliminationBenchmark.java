@@ -0,0 +1,111 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * EliminationBenchmark.java
+ *
+ * JMH benchmark of the paper and JDK algorithms with and without the 
+ * EliminationQueueImpl front-end, under the MPMC shape. Elimination only 
+ * pairs operations while the queue is empty, so the consumers' auxiliary 
+ * counters report successful and empty dequeues separately: the gain shows 
+ * when consumers keep up with producers and the queue stays near empty.
+ *
+ * Example:
+ * - ./gradlew jmh --args='EliminationBenchmark -tg 8,8'
+ */
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EliminationBenchmark
+{
+    @Param({"StructuredPaperQueue", "StructuredJDKQueue"})
+    public String impl;
+
+    @Param({"false", "true"})
+    public boolean elimination;
+
+    QueueImpl<Integer> queueImpl;
+    TestQueue<Integer> queue;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        switch (impl)
+        {
+            case "StructuredPaperQueue":
+                queueImpl = new StructuredPaperQueue<Integer>();
+                break;
+            case "StructuredJDKQueue":
+                queueImpl = new StructuredJDKQueue<Integer>();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+        if (elimination)
+            queueImpl = new EliminationQueueImpl<Integer>(queueImpl);
+        queue = queueImpl.newQueue();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ConsumerCounters
+    {
+        public long dequeued;
+        public long empty;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            dequeued = 0;
+            empty = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState
+    {
+        int next = 0;
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public void enqueue(ProducerState state)
+    {
+        queueImpl.enqueue(queue, state.next++);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public Integer dequeue(ConsumerCounters counters)
+    {
+        Integer value = queueImpl.dequeue(queue);
+        if (value == null)
+            counters.empty++;
+        else
+            counters.dequeued++;
+        return value;
+    }
+}
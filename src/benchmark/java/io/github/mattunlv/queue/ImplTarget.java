@@ -0,0 +1,53 @@
+package io.github.mattunlv.queue;
+
+/**
+ * ImplTarget.java
+ *
+ * A BenchTarget that runs a QueueImpl, creating a new queue with newQueue() 
+ * for each run. RunBackoffBenchmarks subclasses it to rename each row after 
+ * its BackoffPolicy.
+ */
+
+class ImplTarget implements BenchTarget
+{
+    QueueImpl<Integer> impl;
+    QueueMetrics metrics;
+
+    ImplTarget(QueueImpl<Integer> impl)
+    {
+        this(impl, null);
+    }
+
+    ImplTarget(QueueImpl<Integer> impl, QueueMetrics metrics)
+    {
+        this.impl = impl;
+        this.metrics = metrics;
+    }
+
+    public BenchQueue create(Topology topology)
+    {
+        final TestQueue<Integer> queue = impl.newQueue();
+        return new BenchQueue()
+        {
+            public void enqueue(Integer value)
+            {
+                impl.enqueue(queue, value);
+            }
+
+            public Integer dequeue()
+            {
+                return impl.dequeue(queue);
+            }
+        };
+    }
+
+    public String getName()
+    {
+        return impl.getImplName();
+    }
+
+    public QueueMetrics getMetrics()
+    {
+        return metrics;
+    }
+}
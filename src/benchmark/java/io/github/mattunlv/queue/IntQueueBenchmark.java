@@ -0,0 +1,105 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * IntQueueBenchmark.java
+ *
+ * JMH benchmark comparing the primitive IntQueueImpl family against the boxed
+ * QueueImpl of the same algorithm under the SPSC shape. Element values start
+ * above the Integer cache range so that the boxed variants pay for an Integer on
+ * every enqueue, as our task IDs do. Run with -prof gc to see the allocation rate
+ * per operation.
+ *
+ * Example:
+ * - ./gradlew jmh --args='IntQueueBenchmark -prof gc'
+ */
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IntQueueBenchmark
+{
+    static final int FIRST_VALUE = 1 << 20;
+
+    @Param({"IntPaperQueue", "IntJDKQueue", "VarHandlePaperQueue", "VarHandleJDKQueue"})
+    public String impl;
+
+    IntQueueImpl intImpl;
+    IntTestQueue intQueue;
+    QueueImpl<Integer> boxedImpl;
+    TestQueue<Integer> boxedQueue;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        intImpl = null;
+        boxedImpl = null;
+        switch (impl)
+        {
+            case "IntPaperQueue":
+                intImpl = new IntPaperQueue();
+                break;
+            case "IntJDKQueue":
+                intImpl = new IntJDKQueue();
+                break;
+            case "VarHandlePaperQueue":
+                boxedImpl = new VarHandlePaperQueue<Integer>();
+                break;
+            case "VarHandleJDKQueue":
+                boxedImpl = new VarHandleJDKQueue<Integer>();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+        intQueue = (intImpl != null) ? intImpl.newQueue() : null;
+        boxedQueue = (boxedImpl != null) ? boxedImpl.newQueue() : null;
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState
+    {
+        int next = FIRST_VALUE;
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void enqueue(ProducerState state)
+    {
+        int value = state.next++;
+        if (intImpl != null)
+            intImpl.enqueueInt(intQueue, value);
+        else
+            boxedImpl.enqueue(boxedQueue, value);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public int dequeue()
+    {
+        if (intImpl != null)
+            return intImpl.dequeueInt(intQueue);
+        Integer value = boxedImpl.dequeue(boxedQueue);
+        return (value == null) ? IntQueueImpl.EMPTY : value;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PaddedQueueBenchmark.java
+ *
+ * JMH benchmark of each TestQueue-based implementation with and without the 
+ * PaddedTestQueue header, under the MPMC shape. Any difference comes from 
+ * false sharing between the head and tail, so it only shows with producers and 
+ * consumers on different cores. Run with -prof perfnorm to see the change in 
+ * cache misses per operation.
+ *
+ * Example:
+ * - ./gradlew jmh --args='PaddedQueueBenchmark -tg 4,4 -prof perfnorm'
+ */
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PaddedQueueBenchmark
+{
+    @Param({"StructuredPaperQueue", "CSPFriendlyPaperQueue", "StructuredJDKQueue", "CSPFriendlyJDKQueue"})
+    public String impl;
+
+    @Param({"false", "true"})
+    public boolean padded;
+
+    QueueImpl<Integer> queueImpl;
+    TestQueue<Integer> queue;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        switch (impl)
+        {
+            case "StructuredPaperQueue":
+                queueImpl = new StructuredPaperQueue<Integer>();
+                break;
+            case "CSPFriendlyPaperQueue":
+                queueImpl = new CSPFriendlyPaperQueue<Integer>();
+                break;
+            case "StructuredJDKQueue":
+                queueImpl = new StructuredJDKQueue<Integer>();
+                break;
+            case "CSPFriendlyJDKQueue":
+                queueImpl = new CSPFriendlyJDKQueue<Integer>();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+        if (padded)
+            queueImpl = new PaddedQueueImpl<Integer>(queueImpl);
+        queue = queueImpl.newQueue();
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState
+    {
+        int next = 0;
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public void enqueue(ProducerState state)
+    {
+        queueImpl.enqueue(queue, state.next++);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public Integer dequeue()
+    {
+        return queueImpl.dequeue(queue);
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QueueBenchmark.java
+ *
+ * JMH benchmark of every QueueImpl, with ConcurrentLinkedQueue as a baseline,
+ * under the SPSC, MPSC, SPMC and MPMC shapes. Each shape is a JMH group whose
+ * producer and consumer thread counts can be scaled from the command line with
+ * -tg, e.g. -tg 4,4 runs the mpmc group with four producers and four consumers.
+ *
+ * Throughput mode reports ops/sec per method. SampleTime mode reports the
+ * per-operation latency percentiles. Consumers count successful and empty
+ * dequeues separately through auxiliary counters so that polling an empty queue
+ * does not inflate the dequeue rate.
+ *
+ * The queue is recreated for every iteration so that a backlog left by faster
+ * producers cannot grow without bound across iterations.
+ *
+ * Run with -prof gc to report the allocation rate per operation and the number
+ * and duration of collections, e.g. to compare PooledPaperQueue with the
+ * allocating implementations.
+ *
+ * The Relaxed queues only differ from the VarHandle queues in memory ordering.
+ * x86 orders loads and stores strongly whatever the code asks for, so compare
+ * them on an ARM or POWER machine. JMH cannot emulate a weaker memory model.
+ *
+ * Example:
+ * - ./gradlew jmh --args='QueueBenchmark.mpmc -tg 8,8 -p impl=StructuredPaperQueue'
+ * - ./gradlew jmh --args='QueueBenchmark.spsc -p impl=PooledPaperQueue,StructuredPaperQueue -prof gc'
+ * - ./gradlew jmh --args='QueueBenchmark.mpmc -tg 4,4 -p impl=RelaxedPaperQueue,VarHandlePaperQueue'
+ */
+
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class QueueBenchmark
+{
+    @Param({"StructuredPaperQueue", "CSPFriendlyPaperQueue", "StructuredJDKQueue", "CSPFriendlyJDKQueue", "VarHandlePaperQueue", "VarHandleJDKQueue", "RingBufferQueue", "PooledPaperQueue", "StripedQueueImpl", "OffHeapPaperQueue", "RelaxedPaperQueue", "RelaxedJDKQueue", "FAAArrayQueue", "FlatCombiningQueueImpl", "WaitFreeQueue", "DualQueue", "ConcurrentLinkedQueue"})
+    public String impl;
+
+    QueueImpl<Integer> queueImpl;
+    TestQueue<Integer> queue;
+    ConcurrentLinkedQueue<Integer> baseline;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        switch (impl)
+        {
+            case "StructuredPaperQueue":
+                queueImpl = new StructuredPaperQueue<Integer>();
+                break;
+            case "CSPFriendlyPaperQueue":
+                queueImpl = new CSPFriendlyPaperQueue<Integer>();
+                break;
+            case "StructuredJDKQueue":
+                queueImpl = new StructuredJDKQueue<Integer>();
+                break;
+            case "CSPFriendlyJDKQueue":
+                queueImpl = new CSPFriendlyJDKQueue<Integer>();
+                break;
+            case "VarHandlePaperQueue":
+                queueImpl = new VarHandlePaperQueue<Integer>();
+                break;
+            case "VarHandleJDKQueue":
+                queueImpl = new VarHandleJDKQueue<Integer>();
+                break;
+            case "RingBufferQueue":
+                queueImpl = new RingBufferQueue<Integer>(1 << 17);
+                break;
+            case "PooledPaperQueue":
+                queueImpl = new PooledPaperQueue<Integer>();
+                break;
+            case "StripedQueueImpl":
+                queueImpl = StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), Runtime.getRuntime().availableProcessors());
+                break;
+            case "OffHeapPaperQueue":
+                queueImpl = new OffHeapPaperQueue<Integer>(RecordCodec.int32());
+                break;
+            case "RelaxedPaperQueue":
+                queueImpl = new RelaxedPaperQueue<Integer>();
+                break;
+            case "RelaxedJDKQueue":
+                queueImpl = new RelaxedJDKQueue<Integer>();
+                break;
+            case "FAAArrayQueue":
+                queueImpl = new FAAArrayQueue<Integer>();
+                break;
+            case "FlatCombiningQueueImpl":
+                queueImpl = new FlatCombiningQueueImpl<Integer>();
+                break;
+            case "WaitFreeQueue":
+                queueImpl = new WaitFreeQueue<Integer>();
+                break;
+            case "DualQueue":
+                queueImpl = new DualQueue<Integer>();
+                break;
+            case "ConcurrentLinkedQueue":
+                queueImpl = null;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + impl);
+        }
+        queue = (queueImpl != null) ? queueImpl.newQueue() : null;
+        baseline = new ConcurrentLinkedQueue<Integer>();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ConsumerCounters
+    {
+        public long dequeued;
+        public long empty;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            dequeued = 0;
+            empty = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState
+    {
+        int next = 0;
+    }
+
+    void enqueue(ProducerState state)
+    {
+        Integer value = state.next++;
+        if (queueImpl != null)
+            queueImpl.enqueue(queue, value);
+        else
+            baseline.offer(value);
+    }
+
+    Integer dequeue(ConsumerCounters counters)
+    {
+        Integer value = (queueImpl != null) ? queueImpl.dequeue(queue) : baseline.poll();
+        if (value == null)
+            counters.empty++;
+        else
+            counters.dequeued++;
+        return value;
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spscEnqueue(ProducerState state)
+    {
+        enqueue(state);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Integer spscDequeue(ConsumerCounters counters)
+    {
+        return dequeue(counters);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(4)
+    public void mpscEnqueue(ProducerState state)
+    {
+        enqueue(state);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Integer mpscDequeue(ConsumerCounters counters)
+    {
+        return dequeue(counters);
+    }
+
+    @Benchmark
+    @Group("spmc")
+    @GroupThreads(1)
+    public void spmcEnqueue(ProducerState state)
+    {
+        enqueue(state);
+    }
+
+    @Benchmark
+    @Group("spmc")
+    @GroupThreads(4)
+    public Integer spmcDequeue(ConsumerCounters counters)
+    {
+        return dequeue(counters);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public void mpmcEnqueue(ProducerState state)
+    {
+        enqueue(state);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public Integer mpmcDequeue(ConsumerCounters counters)
+    {
+        return dequeue(counters);
+    }
+}
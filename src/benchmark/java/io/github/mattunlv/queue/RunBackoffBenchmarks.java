@@ -0,0 +1,89 @@
+package io.github.mattunlv.queue;
+
+import java.util.ArrayList;
+
+/**
+ * RunBackoffBenchmarks.java
+ *
+ * This class runs each of the four original implementations under every 
+ * BackoffPolicy in the MPMC shape at increasing thread counts, using the 
+ * RunQueueBenchmarks harness, and reports which policy gave the highest 
+ * throughput for each implementation at each thread count.
+ *
+ * Key Methods:
+ * - main(String[] args): Runs the benchmarks. Optional arguments are the maximum 
+ *   number of threads per side (default: available processors) and the number of 
+ *   elements per producer (default: 1,000,000).
+ *
+ * Dependencies:
+ * - RunQueueBenchmarks: Runs each measurement.
+ * - BackoffPolicy: The policies being compared.
+ */
+
+public class RunBackoffBenchmarks
+{
+    static BackoffPolicy[] policies()
+    {
+        return new BackoffPolicy[]
+        {
+            BackoffPolicy.none(),
+            BackoffPolicy.spinWait(),
+            BackoffPolicy.exponential(4, 1024),
+            BackoffPolicy.proportional(8, 1024)
+        };
+    }
+
+    static QueueImpl<Integer>[] impls(BackoffPolicy backoff)
+    {
+        @SuppressWarnings("unchecked")
+        QueueImpl<Integer>[] impls = (QueueImpl<Integer>[])new QueueImpl<?>[4];
+        impls[0] = new StructuredPaperQueue<Integer>(backoff);
+        impls[1] = new CSPFriendlyPaperQueue<Integer>(backoff);
+        impls[2] = new StructuredJDKQueue<Integer>(backoff);
+        impls[3] = new CSPFriendlyJDKQueue<Integer>(backoff);
+        return impls;
+    }
+
+    public static void main(String[] args)
+    {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        BackoffPolicy[] policies = policies();
+
+        ArrayList<String> winners = new ArrayList<String>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            for (int i = 0; i < impls(BackoffPolicy.none()).length; ++i)
+            {
+                BenchResult best = null;
+                String bestPolicy = null;
+                for (BackoffPolicy policy : policies)
+                {
+                    final QueueImpl<Integer> impl = impls(policy)[i];
+                    final String name = impl.getImplName() + "/" + policy.getName();
+                    BenchTarget target = new ImplTarget(impl)
+                    {
+                        public String getName()
+                        {
+                            return name;
+                        }
+                    };
+                    for (int w = 0; w < RunQueueBenchmarks.WARMUP_RUNS; ++w)
+                        RunQueueBenchmarks.run(target, Topology.MPMC, threads, threads, ops / 10);
+                    BenchResult result = RunQueueBenchmarks.run(target, Topology.MPMC, threads, threads, ops);
+                    System.out.println(result);
+                    if (best == null || result.opsPerSecond > best.opsPerSecond)
+                    {
+                        best = result;
+                        bestPolicy = policy.getName();
+                    }
+                }
+                winners.add(String.format("%-24s %3dP %3dC best: %s (%.0f ops/s)",
+                    impls(BackoffPolicy.none())[i].getImplName(), threads, threads, bestPolicy, best.opsPerSecond));
+            }
+        }
+        System.out.println();
+        for (String winner : winners)
+            System.out.println(winner);
+    }
+}
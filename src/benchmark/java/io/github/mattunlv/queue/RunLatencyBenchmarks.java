@@ -0,0 +1,239 @@
+package io.github.mattunlv.queue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * RunLatencyBenchmarks.java
+ *
+ * This class drives each QueueImpl at a fixed offered rate and reports the
+ * end-to-end latency of its elements, from enqueue to dequeue, at p50, p99,
+ * p99.9, p99.99 and max for each implementation and thread count. p99.99 is where
+ * a thread starved by losing CAS races shows up, so it is the column to compare
+ * WaitFreeQueue against the lock-free queues on.
+ *
+ * Each producer follows a fixed schedule: element i is due at begin + i * interval.
+ * The element carries the time it was due (its intended time) and the time it was
+ * actually enqueued. A producer that falls behind, because an enqueue stalled or
+ * the thread was descheduled, sends the late elements back-to-back to catch up,
+ * as a real client with requests arriving at that rate would see them.
+ *
+ * Two latencies are recorded per element:
+ * - corrected: dequeue time minus intended time. This includes the time an
+ *   element spent waiting for its producer to get to it, so a stall counts
+ *   against every element that arrived during it (coordinated-omission
+ *   correction).
+ * - uncorrected: dequeue time minus actual enqueue time. This is what timing each
+ *   call would report, and hides stalls behind the few samples taken around them.
+ * A large gap between the two means the producers could not keep to the rate.
+ *
+ * Latencies are recorded into HdrHistogram Recorders, which any number of
+ * consumer threads can write to without locking. Elements due in the first
+ * WARMUP_SECONDS are not recorded.
+ *
+ * Key Methods:
+ * - main(String[] args): Runs the benchmarks. Optional arguments are the total
+ *   offered rate in elements per second (default: 100,000), the measured
+ *   duration in seconds (default: 5) and the maximum number of threads per side
+ *   (default: half the available processors).
+ * - run(QueueImpl<Stamp> impl, int threads, long rate, int seconds): Runs a
+ *   single measurement with threads producers and threads consumers.
+ *
+ * Dependencies:
+ * - QueueImpl: The implementations being measured.
+ * - org.HdrHistogram: Latency recording.
+ */
+
+class Stamp
+{
+    final long intended;
+    final long sent;
+
+    Stamp(long intended, long sent)
+    {
+        this.intended = intended;
+        this.sent = sent;
+    }
+}
+
+class LatencyProducer extends Thread
+{
+    QueueImpl<Stamp> impl;
+    TestQueue<Stamp> queue;
+    CountDownLatch start;
+    long first;
+    long interval;
+    long count;
+
+    LatencyProducer(QueueImpl<Stamp> impl, TestQueue<Stamp> queue, CountDownLatch start, long first, long interval, long count)
+    {
+        this.impl = impl;
+        this.queue = queue;
+        this.start = start;
+        this.first = first;
+        this.interval = interval;
+        this.count = count;
+    }
+
+    public void run()
+    {
+        try
+        {
+            start.await();
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        for (long i = 0; i < count; ++i)
+        {
+            long intended = first + i * interval;
+            long now;
+            while ((now = System.nanoTime()) < intended)
+                Thread.onSpinWait();
+            impl.enqueue(queue, new Stamp(intended, now));
+        }
+    }
+}
+
+class LatencyConsumer extends Thread
+{
+    QueueImpl<Stamp> impl;
+    TestQueue<Stamp> queue;
+    CountDownLatch start;
+    AtomicLong remaining;
+    long recordFrom;
+    Recorder corrected;
+    Recorder uncorrected;
+
+    LatencyConsumer(QueueImpl<Stamp> impl, TestQueue<Stamp> queue, CountDownLatch start, AtomicLong remaining, long recordFrom, Recorder corrected, Recorder uncorrected)
+    {
+        this.impl = impl;
+        this.queue = queue;
+        this.start = start;
+        this.remaining = remaining;
+        this.recordFrom = recordFrom;
+        this.corrected = corrected;
+        this.uncorrected = uncorrected;
+    }
+
+    public void run()
+    {
+        try
+        {
+            start.await();
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        while (remaining.get() > 0)
+        {
+            Stamp stamp = impl.dequeue(queue);
+            if (stamp == null)
+            {
+                Thread.onSpinWait();
+                continue;
+            }
+            long now = System.nanoTime();
+            if (stamp.intended >= recordFrom)
+            {
+                corrected.recordValue(now - stamp.intended);
+                uncorrected.recordValue(now - stamp.sent);
+            }
+            remaining.decrementAndGet();
+        }
+    }
+}
+
+public class RunLatencyBenchmarks
+{
+    static final int WARMUP_SECONDS = 1;
+    // Time between starting the threads and the first element being due
+    static final long START_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    public static void main(String[] args)
+    {
+        long rate = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        ArrayList<QueueImpl<Stamp>> impls = new ArrayList<QueueImpl<Stamp>>();
+        impls.add(new StructuredPaperQueue<Stamp>());
+        impls.add(new CSPFriendlyPaperQueue<Stamp>());
+        impls.add(new StructuredJDKQueue<Stamp>());
+        impls.add(new CSPFriendlyJDKQueue<Stamp>());
+        impls.add(new VarHandlePaperQueue<Stamp>());
+        impls.add(new VarHandleJDKQueue<Stamp>());
+        impls.add(new RingBufferQueue<Stamp>(1 << 17));
+        impls.add(new PooledPaperQueue<Stamp>());
+        impls.add(StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Stamp>(), Runtime.getRuntime().availableProcessors()));
+        // Each run has threads producers and threads consumers on its own queue
+        impls.add(new WaitFreeQueue<Stamp>(2 * maxThreads));
+
+        System.out.println(String.format("Offered rate %d/s, %d s measured after %d s warm-up, latencies in us", rate, seconds, WARMUP_SECONDS));
+        for (int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            for (QueueImpl<Stamp> impl : impls)
+                System.out.println(run(impl, threads, rate, seconds));
+        }
+    }
+
+    public static String run(QueueImpl<Stamp> impl, int threads, long rate, int seconds)
+    {
+        TestQueue<Stamp> queue = impl.newQueue();
+        CountDownLatch start = new CountDownLatch(1);
+        Recorder corrected = new Recorder(3);
+        Recorder uncorrected = new Recorder(3);
+        // Each producer offers rate / threads, staggered so that the combined
+        // schedule is evenly spaced
+        long interval = TimeUnit.SECONDS.toNanos(1) * threads / rate;
+        long perProducer = rate * (WARMUP_SECONDS + seconds) / threads;
+        long begin = System.nanoTime() + START_DELAY;
+        long recordFrom = begin + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        AtomicLong remaining = new AtomicLong(perProducer * threads);
+        LatencyProducer[] ps = new LatencyProducer[threads];
+        LatencyConsumer[] cs = new LatencyConsumer[threads];
+        for (int i = 0; i < threads; ++i)
+        {
+            ps[i] = new LatencyProducer(impl, queue, start, begin + i * interval / threads, interval, perProducer);
+            cs[i] = new LatencyConsumer(impl, queue, start, remaining, recordFrom, corrected, uncorrected);
+            ps[i].start();
+            cs[i].start();
+        }
+        start.countDown();
+        try
+        {
+            for (int i = 0; i < threads; ++i)
+            {
+                ps[i].join();
+                cs[i].join();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            System.out.println("Error" + e.getMessage());
+        }
+        return String.format("%-28s %3dP %3dC | corrected %s | uncorrected %s",
+            impl.getImplName(), threads, threads,
+            percentiles(corrected.getIntervalHistogram()),
+            percentiles(uncorrected.getIntervalHistogram()));
+    }
+
+    static String percentiles(Histogram histogram)
+    {
+        if (histogram.getTotalCount() == 0)
+            return "-";
+        return String.format("p50=%.1f p99=%.1f p99.9=%.1f p99.99=%.1f max=%.1f",
+            histogram.getValueAtPercentile(50.0) / 1000.0,
+            histogram.getValueAtPercentile(99.0) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getValueAtPercentile(99.99) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+}
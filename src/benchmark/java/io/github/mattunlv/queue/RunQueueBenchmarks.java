@@ -0,0 +1,349 @@
+package io.github.mattunlv.queue;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RunQueueBenchmarks.java
+ *
+ * This class drives every QueueImpl through the four producer/consumer shapes
+ * (SPSC, MPSC, SPMC and MPMC) at increasing thread counts and reports the
+ * throughput in operations per second together with enqueue and dequeue latency
+ * percentiles. java.util.concurrent.ConcurrentLinkedQueue is run alongside the
+ * four implementations as a baseline, and each shape is also run on the
+ * implementation Topology.create() picks for it.
+ *
+ * Throughput is measured over the whole run (every element enqueued and dequeued
+ * once). Latency is sampled on one operation in every SAMPLE_RATE so that the
+ * calls to System.nanoTime() do not dominate the measurement.
+ *
+ * Each run also reports the bytes allocated per operation by the producer and
+ * consumer threads (from com.sun.management.ThreadMXBean, so it includes the
+ * Integer box of each element) and the number of collections and total pause
+ * time reported by the GarbageCollectorMXBeans during the run. When started with
+ * -Dio.github.mattunlv.queue.metrics=true, the QueueMetrics snapshot of each
+ * instrumented implementation is printed after its measured run.
+ *
+ * Key Methods:
+ * - main(String[] args): Runs the benchmarks. Optional arguments are the maximum
+ *   number of threads per side (default: available processors) and the number of
+ *   elements per producer (default: 1,000,000).
+ * - run(BenchTarget target, Topology shape, int producers, int consumers, int ops):
+ *   Runs a single measurement and returns its result.
+ *
+ * Dependencies:
+ * - QueueImpl: The implementations being measured.
+ * - TestQueue: Represents the queue structure.
+ */
+
+// Uses whichever implementation Topology.create() picks for the shape being run
+class TopologyTarget implements BenchTarget
+{
+    public BenchQueue create(Topology topology)
+    {
+        return new ImplTarget(topology.<Integer>create()).create(topology);
+    }
+
+    public String getName()
+    {
+        return "Topology.create()";
+    }
+}
+
+class BaselineTarget implements BenchTarget
+{
+    public BenchQueue create(Topology topology)
+    {
+        final ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<Integer>();
+        return new BenchQueue()
+        {
+            public void enqueue(Integer value)
+            {
+                queue.offer(value);
+            }
+
+            public Integer dequeue()
+            {
+                return queue.poll();
+            }
+        };
+    }
+
+    public String getName()
+    {
+        return "ConcurrentLinkedQueue";
+    }
+}
+
+class BenchProducer extends Thread
+{
+    BenchQueue queue;
+    CountDownLatch start;
+    int ops;
+    long[] samples;
+    int sampled = 0;
+    long allocated = 0;
+
+    BenchProducer(BenchQueue queue, CountDownLatch start, int ops)
+    {
+        this.queue = queue;
+        this.start = start;
+        this.ops = ops;
+        this.samples = new long[ops / RunQueueBenchmarks.SAMPLE_RATE + 1];
+    }
+
+    public void run()
+    {
+        try
+        {
+            start.await();
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        long before = RunQueueBenchmarks.allocatedBytes();
+        for (int i = 0; i < ops; ++i)
+        {
+            if ((i & (RunQueueBenchmarks.SAMPLE_RATE - 1)) == 0)
+            {
+                long begin = System.nanoTime();
+                queue.enqueue(i);
+                samples[sampled++] = System.nanoTime() - begin;
+            }
+            else
+                queue.enqueue(i);
+        }
+        allocated = RunQueueBenchmarks.allocatedBytes() - before;
+    }
+}
+
+class BenchConsumer extends Thread
+{
+    BenchQueue queue;
+    CountDownLatch start;
+    AtomicInteger remaining;
+    long[] samples;
+    int sampled = 0;
+    long allocated = 0;
+
+    BenchConsumer(BenchQueue queue, CountDownLatch start, AtomicInteger remaining, int total)
+    {
+        this.queue = queue;
+        this.start = start;
+        this.remaining = remaining;
+        this.samples = new long[total / RunQueueBenchmarks.SAMPLE_RATE + 1];
+    }
+
+    public void run()
+    {
+        try
+        {
+            start.await();
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+        long before = RunQueueBenchmarks.allocatedBytes();
+        int count = 0;
+        while (remaining.get() > 0)
+        {
+            Integer n;
+            if ((count & (RunQueueBenchmarks.SAMPLE_RATE - 1)) == 0 && sampled < samples.length)
+            {
+                long begin = System.nanoTime();
+                n = queue.dequeue();
+                if (n != null)
+                    samples[sampled++] = System.nanoTime() - begin;
+            }
+            else
+                n = queue.dequeue();
+            if (n == null)
+            {
+                Thread.onSpinWait();
+                continue;
+            }
+            ++count;
+            remaining.decrementAndGet();
+        }
+        allocated = RunQueueBenchmarks.allocatedBytes() - before;
+    }
+}
+
+public class RunQueueBenchmarks
+{
+    // Must be a power of two
+    static final int SAMPLE_RATE = 64;
+    static final int WARMUP_RUNS = 2;
+
+    static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    static long allocatedBytes()
+    {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    static long gcCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    static long gcMillis()
+    {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            millis += Math.max(0, gc.getCollectionTime());
+        return millis;
+    }
+
+    public static void main(String[] args)
+    {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+
+        ArrayList<BenchTarget> targets = new ArrayList<BenchTarget>();
+        StructuredPaperQueue<Integer> paper = new StructuredPaperQueue<Integer>();
+        StructuredJDKQueue<Integer> jdk = new StructuredJDKQueue<Integer>();
+        targets.add(new ImplTarget(paper, paper.getMetrics()));
+        targets.add(new ImplTarget(new CSPFriendlyPaperQueue<Integer>()));
+        targets.add(new ImplTarget(jdk, jdk.getMetrics()));
+        targets.add(new ImplTarget(new CSPFriendlyJDKQueue<Integer>()));
+        targets.add(new ImplTarget(new VarHandlePaperQueue<Integer>()));
+        targets.add(new ImplTarget(new VarHandleJDKQueue<Integer>()));
+        targets.add(new ImplTarget(new RingBufferQueue<Integer>(1 << 17)));
+        targets.add(new ImplTarget(new PooledPaperQueue<Integer>()));
+        targets.add(new TopologyTarget());
+        targets.add(new ImplTarget(StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), Runtime.getRuntime().availableProcessors())));
+        targets.add(new ImplTarget(new EliminationQueueImpl<Integer>(new StructuredPaperQueue<Integer>())));
+        targets.add(new ImplTarget(new LanedPriorityQueueImpl<Integer>(new VarHandleJDKQueue<Integer>(), 4)));
+        targets.add(new ImplTarget(new MappedQueue<Integer>(RecordCodec.int32(), 1 << 17)));
+        targets.add(new ImplTarget(new OffHeapPaperQueue<Integer>(RecordCodec.int32())));
+        targets.add(new ImplTarget(new RelaxedPaperQueue<Integer>()));
+        targets.add(new ImplTarget(new RelaxedJDKQueue<Integer>()));
+        targets.add(new ImplTarget(new FAAArrayQueue<Integer>()));
+        targets.add(new ImplTarget(new FlatCombiningQueueImpl<Integer>()));
+        // Each run has at most maxThreads producers and maxThreads consumers on its own queue
+        targets.add(new ImplTarget(new WaitFreeQueue<Integer>(2 * maxThreads)));
+        targets.add(new ImplTarget(new DualQueue<Integer>()));
+        targets.add(new BaselineTarget());
+
+        for (Topology shape : Topology.values())
+        {
+            for (int threads = 1; threads <= maxThreads; threads *= 2)
+            {
+                if (threads > 1 && shape == Topology.SPSC)
+                    break;
+                int producers = shape.singleProducer() ? 1 : threads;
+                int consumers = shape.singleConsumer() ? 1 : threads;
+                for (BenchTarget target : targets)
+                {
+                    for (int i = 0; i < WARMUP_RUNS; ++i)
+                        run(target, shape, producers, consumers, ops / 10);
+                    QueueMetrics metrics = target.getMetrics();
+                    if (metrics != null)
+                        metrics.reset();
+                    System.out.println(run(target, shape, producers, consumers, ops));
+                    if (QueueMetrics.ENABLED && metrics != null)
+                        System.out.println("    " + metrics.snapshot());
+                }
+            }
+        }
+    }
+
+    public static BenchResult run(BenchTarget target, Topology shape, int producers, int consumers, int ops)
+    {
+        BenchQueue queue = target.create(shape);
+        CountDownLatch start = new CountDownLatch(1);
+        int total = producers * ops;
+        AtomicInteger remaining = new AtomicInteger(total);
+        BenchProducer[] ps = new BenchProducer[producers];
+        BenchConsumer[] cs = new BenchConsumer[consumers];
+        for (int i = 0; i < producers; ++i)
+        {
+            ps[i] = new BenchProducer(queue, start, ops);
+            ps[i].start();
+        }
+        for (int i = 0; i < consumers; ++i)
+        {
+            cs[i] = new BenchConsumer(queue, start, remaining, total);
+            cs[i].start();
+        }
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long begin = System.nanoTime();
+        start.countDown();
+        try
+        {
+            for (int i = 0; i < producers; ++i)
+                ps[i].join();
+            for (int i = 0; i < consumers; ++i)
+                cs[i].join();
+        }
+        catch (InterruptedException e)
+        {
+            System.out.println("Error" + e.getMessage());
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = 0;
+        for (BenchProducer p : ps)
+            allocated += p.allocated;
+        for (BenchConsumer c : cs)
+            allocated += c.allocated;
+
+        BenchResult result = new BenchResult();
+        result.name = target.getName();
+        result.shape = shape;
+        result.producers = producers;
+        result.consumers = consumers;
+        // Each element is counted once for its enqueue and once for its dequeue
+        result.opsPerSecond = 2.0 * total * 1e9 / elapsed;
+        result.bytesPerOp = allocated / (2.0 * total);
+        result.gcCount = gcCount() - gcCountBefore;
+        result.gcMillis = gcMillis() - gcMillisBefore;
+        result.enqueueLatency = merge(ps);
+        result.dequeueLatency = merge(cs);
+        return result;
+    }
+
+    static long[] merge(BenchProducer[] threads)
+    {
+        int size = 0;
+        for (BenchProducer t : threads)
+            size += t.sampled;
+        long[] all = new long[size];
+        int pos = 0;
+        for (BenchProducer t : threads)
+        {
+            System.arraycopy(t.samples, 0, all, pos, t.sampled);
+            pos += t.sampled;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    static long[] merge(BenchConsumer[] threads)
+    {
+        int size = 0;
+        for (BenchConsumer t : threads)
+            size += t.sampled;
+        long[] all = new long[size];
+        int pos = 0;
+        for (BenchConsumer t : threads)
+        {
+            System.arraycopy(t.samples, 0, all, pos, t.sampled);
+            pos += t.sampled;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+}
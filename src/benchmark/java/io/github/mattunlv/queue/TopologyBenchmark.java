@@ -0,0 +1,93 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * TopologyBenchmark.java
+ *
+ * JMH benchmark of the implementation Topology.create() picks for the SPSC and 
+ * MPSC shapes against the general MPMC implementation under the same shape. The 
+ * group being run decides the topology, and the specialised parameter decides 
+ * whether the queue comes from that topology or from Topology.MPMC.
+ *
+ * Example:
+ * - ./gradlew jmh --args='TopologyBenchmark.spsc'
+ * - ./gradlew jmh --args='TopologyBenchmark.mpsc -tg 4,1'
+ */
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TopologyBenchmark
+{
+    @Param({"true", "false"})
+    public boolean specialised;
+
+    QueueImpl<Integer> queueImpl;
+    TestQueue<Integer> queue;
+
+    @Setup(Level.Iteration)
+    public void setup(BenchmarkParams params)
+    {
+        Topology topology = params.getBenchmark().endsWith(".spsc") ? Topology.SPSC : Topology.MPSC;
+        queueImpl = (specialised ? topology : Topology.MPMC).<Integer>create();
+        queue = queueImpl.newQueue();
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState
+    {
+        int next = 0;
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spscEnqueue(ProducerState state)
+    {
+        queueImpl.enqueue(queue, state.next++);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Integer spscDequeue()
+    {
+        return queueImpl.dequeue(queue);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(4)
+    public void mpscEnqueue(ProducerState state)
+    {
+        queueImpl.enqueue(queue, state.next++);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Integer mpscDequeue()
+    {
+        return queueImpl.dequeue(queue);
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * ArenaTestQueue.java
+ *
+ * The part of the queue structure shared by PooledTestQueue and 
+ * OffHeapTestQueue: an arena of recycled nodes and the counted head and tail of 
+ * the Michael and Scott paper. A node is an index into the arena, which grows 
+ * in chunks of CHUNK_SIZE nodes and never shrinks, so a thread holding a stale 
+ * index can always read the node safely. Index 0 is the null pointer. Nodes are 
+ * recycled, but chunks are not: the arena keeps its largest size until the 
+ * queue itself is collected.
+ *
+ * Every pointer the algorithm CASes (head, tail and each node's next) is a 
+ * counted pointer packed into a long: the index in the low 32 bits and a 
+ * modification count in the high 32 bits. A CAS installs the new index with the 
+ * count plus one, so a CAS by a thread that read the pointer before the node was 
+ * freed and reused fails even though the index matches (the ABA problem). As in 
+ * the paper, this is only safe while a thread is delayed for fewer than 2^32 
+ * modifications of the same pointer.
+ *
+ * Free nodes are kept on a per-thread cache of CACHE_SIZE nodes, backed by a 
+ * shared Treiber stack with a counted top. When the cache is full half of it 
+ * is pushed to the shared stack with a single CAS. Nodes left in the cache of a 
+ * thread that exits are not reused, which costs at most CACHE_SIZE nodes per 
+ * thread.
+ *
+ * Subclasses decide how a chunk is stored. They create it in newChunk and give 
+ * access to each node's free list link, next pointer and element.
+ */
+
+public abstract class ArenaTestQueue<E> extends TestQueue<E>
+{
+    public static final int NULL = 0;
+    public static final int CHUNK_SHIFT = 14;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    public static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int MAX_CHUNKS = 1 << 12;
+    public static final int CACHE_SIZE = 64;
+
+    static final class Cache
+    {
+        final int[] items = new int[CACHE_SIZE];
+        int size = 0;
+    }
+
+    final ThreadLocal<Cache> cache = ThreadLocal.withInitial(Cache::new);
+    volatile int chunkCount;
+    volatile long freeTop;
+    public volatile long head;
+    public volatile long tail;
+
+    static final VarHandle CHUNK_COUNT;
+    static final VarHandle FREE_TOP;
+    public static final VarHandle HEAD;
+    public static final VarHandle TAIL;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CHUNK_COUNT = lookup.findVarHandle(ArenaTestQueue.class, "chunkCount", int.class);
+            FREE_TOP = lookup.findVarHandle(ArenaTestQueue.class, "freeTop", long.class);
+            HEAD = lookup.findVarHandle(ArenaTestQueue.class, "head", long.class);
+            TAIL = lookup.findVarHandle(ArenaTestQueue.class, "tail", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    protected ArenaTestQueue()
+    {
+        super(null, null);
+    }
+
+    public static long pack(int index, int count)
+    {
+        return ((long)count << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    public static int ptr(long counted)
+    {
+        return (int)counted;
+    }
+
+    public static int count(long counted)
+    {
+        return (int)(counted >>> 32);
+    }
+
+    // Creates the storage for chunk, before any of its nodes are handed out
+    abstract void newChunk(int chunk);
+
+    // The free list link of node, read with acquire
+    abstract int freeNext(int node);
+
+    abstract void setFreeNext(int node, int rest);
+
+    /**
+     * Takes a node from the calling thread's cache, then the shared free list, 
+     * and grows the arena when both are empty.
+     */
+    public int allocate()
+    {
+        Cache c = cache.get();
+        if (c.size > 0)
+            return c.items[--c.size];
+        while (true)
+        {
+            // top = Q->freeTop
+            long top = freeTop;
+            int node = ptr(top);
+            if (node != NULL)
+            {
+                int rest = freeNext(node);
+                // CAS(&Q->freeTop, top, <rest, top.count + 1>)
+                if (FREE_TOP.compareAndSet(this, top, pack(rest, count(top) + 1)))
+                    return node;
+            }
+            else
+            {
+                int chunk = chunkCount;
+                if (chunk == MAX_CHUNKS)
+                    throw new IllegalStateException("Node arena exhausted at " + MAX_CHUNKS * CHUNK_SIZE + " nodes");
+                // Only the thread that claims the chunk creates it, others retry the free list
+                if (CHUNK_COUNT.compareAndSet(this, chunk, chunk + 1))
+                    return grow(chunk, c);
+            }
+        }
+    }
+
+    /**
+     * Returns a node that no thread can reach through the queue any more.
+     */
+    public void release(int node)
+    {
+        Cache c = cache.get();
+        if (c.size == CACHE_SIZE)
+        {
+            int half = CACHE_SIZE / 2;
+            for (int i = half; i < CACHE_SIZE - 1; ++i)
+                setFreeNext(c.items[i], c.items[i + 1]);
+            push(c.items[half], c.items[CACHE_SIZE - 1]);
+            c.size = half;
+        }
+        c.items[c.size++] = node;
+    }
+
+    // The chunk is published to other threads by the CAS that hands out its nodes
+    int grow(int chunk, Cache c)
+    {
+        newChunk(chunk);
+        int base = chunk << CHUNK_SHIFT;
+        int first = (chunk == 0) ? base + 1 : base;
+        int last = base + CHUNK_SIZE - 1;
+        int node = first++;
+        while (c.size < CACHE_SIZE && first <= last)
+            c.items[c.size++] = first++;
+        if (first <= last)
+        {
+            for (int i = first; i < last; ++i)
+                setFreeNext(i, i + 1);
+            push(first, last);
+        }
+        return node;
+    }
+
+    // Pushes the chain first..last, already linked through the free list link
+    void push(int first, int last)
+    {
+        while (true)
+        {
+            long top = freeTop;
+            setFreeNext(last, ptr(top));
+            // CAS(&Q->freeTop, top, <first, top.count + 1>)
+            if (FREE_TOP.compareAndSet(this, top, pack(first, count(top) + 1)))
+                return;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * BackoffPolicy.java
+ *
+ * What a queue operation does after one of its CAS calls fails, before it
+ * retries. Retrying at once makes every thread hit the same head or tail cache
+ * line again while the winner is still using it. Waiting a little lets the line
+ * settle, at the cost of latency when there was no real contention.
+ *
+ * backoff is given the number of CAS failures the current operation has had so
+ * far, so a policy needs no per-thread state. Policies are shared between threads
+ * and must be thread-safe.
+ *
+ * Key Methods:
+ * - backoff(int failures): Waits after the failures-th failed CAS of an
+ *   operation.
+ * - none(): Retries at once, as the algorithms in the papers do.
+ * - spinWait(): Calls Thread.onSpinWait once per failure.
+ * - exponential(int minSpins, int maxSpins): Spins a random number of times up to
+ *   a bound that doubles with each failure, from minSpins up to maxSpins.
+ * - proportional(int spinsPerFailure, int maxSpins): Spins spinsPerFailure times
+ *   per failure so far, up to maxSpins.
+ */
+
+public interface BackoffPolicy
+{
+    public void backoff(int failures);
+
+    public String getName();
+
+    public static BackoffPolicy none()
+    {
+        return None.INSTANCE;
+    }
+
+    public static BackoffPolicy spinWait()
+    {
+        return SpinWait.INSTANCE;
+    }
+
+    public static BackoffPolicy exponential(int minSpins, int maxSpins)
+    {
+        return new Exponential(minSpins, maxSpins);
+    }
+
+    public static BackoffPolicy proportional(int spinsPerFailure, int maxSpins)
+    {
+        return new Proportional(spinsPerFailure, maxSpins);
+    }
+
+    static void spin(int spins)
+    {
+        for (int i = 0; i < spins; ++i)
+            Thread.onSpinWait();
+    }
+
+    final class None implements BackoffPolicy
+    {
+        static final None INSTANCE = new None();
+
+        public void backoff(int failures)
+        {
+        }
+
+        public String getName()
+        {
+            return "none";
+        }
+    }
+
+    final class SpinWait implements BackoffPolicy
+    {
+        static final SpinWait INSTANCE = new SpinWait();
+
+        public void backoff(int failures)
+        {
+            Thread.onSpinWait();
+        }
+
+        public String getName()
+        {
+            return "spinWait";
+        }
+    }
+
+    final class Exponential implements BackoffPolicy
+    {
+        final int minSpins;
+        final int maxSpins;
+
+        Exponential(int minSpins, int maxSpins)
+        {
+            if (minSpins < 1 || maxSpins < minSpins)
+                throw new IllegalArgumentException("Need 1 <= minSpins <= maxSpins: " + minSpins + ", " + maxSpins);
+            this.minSpins = minSpins;
+            this.maxSpins = maxSpins;
+        }
+
+        public void backoff(int failures)
+        {
+            // bound = minSpins * 2^(failures - 1), capped before the shift can overflow
+            int shift = Math.min(failures - 1, Integer.numberOfLeadingZeros(minSpins) - 1);
+            int bound = Math.min(maxSpins, minSpins << shift);
+            // Jitter keeps threads that failed together from retrying together
+            spin(1 + ThreadLocalRandom.current().nextInt(bound));
+        }
+
+        public String getName()
+        {
+            return "exponential(" + minSpins + ", " + maxSpins + ")";
+        }
+    }
+
+    final class Proportional implements BackoffPolicy
+    {
+        final int spinsPerFailure;
+        final int maxSpins;
+
+        Proportional(int spinsPerFailure, int maxSpins)
+        {
+            if (spinsPerFailure < 1 || maxSpins < spinsPerFailure)
+                throw new IllegalArgumentException("Need 1 <= spinsPerFailure <= maxSpins: " + spinsPerFailure + ", " + maxSpins);
+            this.spinsPerFailure = spinsPerFailure;
+            this.maxSpins = maxSpins;
+        }
+
+        public void backoff(int failures)
+        {
+            spin((int)Math.min(maxSpins, (long)spinsPerFailure * failures));
+        }
+
+        public String getName()
+        {
+            return "proportional(" + spinsPerFailure + ", " + maxSpins + ")";
+        }
+    }
+}
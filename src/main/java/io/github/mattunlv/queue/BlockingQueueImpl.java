@@ -0,0 +1,193 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * BlockingQueueImpl.java
+ * 
+ * This class adds blocking and timed dequeue operations to any QueueImpl. enqueue 
+ * and dequeue go straight to the wrapped implementation, so the lock-free fast 
+ * path is unchanged. The only addition on enqueue is a check for parked 
+ * consumers, and a consumer is only woken when one is waiting.
+ * 
+ * A waiting consumer backs off adaptively. It retries immediately a few times, 
+ * then spins with Thread.onSpinWait, then yields, and finally parks. The number 
+ * of onSpinWait spins grows when spinning finds an element and shrinks when the 
+ * consumer has to park, so a busy queue stays in the spin phase and an idle one 
+ * stops burning CPU quickly.
+ * 
+ * Parking never loses a wake-up. A consumer registers in waiters before its 
+ * final re-check of the queue, and a producer checks waiters after its element 
+ * is linked, with a full fence on both sides. A consumer that is woken but 
+ * leaves without an element (timeout or interrupt) passes the wake-up on to 
+ * another waiter.
+ * 
+ * SizedBlockingQueueImpl adds size, isEmpty and peek when the wrapped 
+ * implementation has them.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element and wakes one parked 
+ *   consumer, if any.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if the 
+ *   queue is empty, without waiting.
+ * - take(TestQueue<E> Q): Removes and returns an element, waiting if necessary.
+ * - poll(TestQueue<E> Q, long timeout, TimeUnit unit): Removes and returns an 
+ *   element, waiting up to the timeout, or returns null.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates a BlockingTestQueue around a queue of the wrapped 
+ *   implementation.
+ * 
+ * Dependencies:
+ * - BlockingTestQueue: Represents the queue structure.
+ * - QueueImpl: The wrapped implementation.
+ */
+
+public class BlockingQueueImpl<E> implements QueueImpl<E>
+{
+    // Immediate retries before spinning
+    static final int RETRIES = 8;
+    // Bounds of the adaptive onSpinWait budget
+    static final int MIN_SPINS = 16;
+    static final int MAX_SPINS = 1024;
+    // Yields before parking
+    static final int YIELDS = 4;
+
+    final QueueImpl<E> impl;
+
+    public BlockingQueueImpl(QueueImpl<E> impl)
+    {
+        this.impl = impl;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        BlockingTestQueue<E> q = (BlockingTestQueue<E>)Q;
+        impl.enqueue(q.queue, value);
+        signal(q, 1);
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        BlockingTestQueue<E> q = (BlockingTestQueue<E>)Q;
+        impl.enqueueAll(q.queue, values);
+        signal(q, values.size());
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        return impl.dequeue(((BlockingTestQueue<E>)Q).queue);
+    }
+
+    @Override
+    public int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        return impl.drainTo(((BlockingTestQueue<E>)Q).queue, sink, max);
+    }
+
+    public E take(TestQueue<E> Q) throws InterruptedException
+    {
+        return await((BlockingTestQueue<E>)Q, false, 0L);
+    }
+
+    public E poll(TestQueue<E> Q, long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return await((BlockingTestQueue<E>)Q, true, unit.toNanos(timeout));
+    }
+
+
+
+
+    @Override
+    public String getImplName() 
+    {
+        return "Blocking" + impl.getImplName();
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new BlockingTestQueue<E>(impl.newQueue());
+    }
+
+    // Wakes up to count parked consumers
+    void signal(BlockingTestQueue<E> q, int count)
+    {
+        // Order the element being linked before the check for waiters
+        VarHandle.fullFence();
+        for (int i = 0; i < count && !q.waiters.isEmpty(); ++i)
+        {
+            Thread waiter = q.waiters.poll();
+            if (waiter != null)
+                LockSupport.unpark(waiter);
+        }
+    }
+
+    E await(BlockingTestQueue<E> q, boolean timed, long nanos) throws InterruptedException
+    {
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        E value = spin(q, timed, deadline);
+        if (value != null)
+            return value;
+        Thread me = Thread.currentThread();
+        while (true)
+        {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (timed && deadline - System.nanoTime() <= 0)
+                return null;
+            q.waiters.add(me);
+            // Order the registration before the re-check of the queue
+            VarHandle.fullFence();
+            value = impl.dequeue(q.queue);
+            if (value == null)
+            {
+                if (timed)
+                    LockSupport.parkNanos(this, deadline - System.nanoTime());
+                else
+                    LockSupport.park(this);
+            }
+            // A producer removes a waiter before waking it
+            boolean signalled = !q.waiters.remove(me);
+            if (value == null)
+                value = impl.dequeue(q.queue);
+            if (value != null)
+                return value;
+            if (signalled && (Thread.currentThread().isInterrupted() || (timed && deadline - System.nanoTime() <= 0)))
+                signal(q, 1);
+        }
+    }
+
+    // Spin phases before parking: immediate retries, onSpinWait, then yield
+    E spin(BlockingTestQueue<E> q, boolean timed, long deadline)
+    {
+        int budget = q.spinBudget;
+        int limit = RETRIES + budget + YIELDS;
+        for (int i = 0; i < limit; ++i)
+        {
+            E value = impl.dequeue(q.queue);
+            if (value != null)
+            {
+                if (i >= RETRIES && budget < MAX_SPINS)
+                    q.spinBudget = budget << 1;
+                return value;
+            }
+            if (timed && deadline - System.nanoTime() <= 0)
+                return null;
+            if (i < RETRIES)
+                continue;
+            else if (i < RETRIES + budget)
+                Thread.onSpinWait();
+            else
+                Thread.yield();
+        }
+        if (budget > MIN_SPINS)
+            q.spinBudget = budget >> 1;
+        return null;
+    }
+}
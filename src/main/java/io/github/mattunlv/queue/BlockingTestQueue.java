@@ -0,0 +1,25 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * BlockingTestQueue.java
+ *
+ * The queue structure used by BlockingQueueImpl: the queue of the wrapped 
+ * implementation plus the consumers parked waiting for an element. spinBudget is 
+ * the adaptive number of spins a consumer makes before parking. Updates to it are 
+ * racy on purpose, since it is only a hint.
+ */
+
+public class BlockingTestQueue<E> extends TestQueue<E>
+{
+    public final TestQueue<E> queue;
+    public final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+    public volatile int spinBudget = BlockingQueueImpl.MIN_SPINS;
+
+    public BlockingTestQueue(TestQueue<E> queue)
+    {
+        super(null, null);
+        this.queue = queue;
+    }
+}
@@ -1,3 +1,5 @@
+package io.github.mattunlv.queue;
+
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -13,12 +15,18 @@ import java.util.concurrent.atomic.AtomicReference;
  * efficiently, making it suitable for high-performance, multi-threaded applications.
  * 
  * Key Methods:
- * - enqueue(TestQueue Q, Integer value): Adds an element to the queue.
- * - dequeue(TestQueue Q): Removes and returns an element from the queue.
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue.
  * - getImplName(): Returns the name of the implementation.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the first unclaimed node and the last node.
+ * - peek(TestQueue<E> Q): Returns the first unclaimed element without removing 
+ *   it. isEmpty is peek(Q) == null.
+ * - CSPFriendlyJDKQueue(BackoffPolicy backoff): Creates the queue with a policy applied 
+ *   after each failed CAS on a link or an item. The default retries at once.
  * 
  * Helper Method:
- * - updateHead(TestQueue Q, Node head, Node pointer): Updates the head of the queue 
+ * - updateHead(TestQueue<E> Q, Node<E> head, Node<E> pointer): Updates the head of the queue 
  *   to maintain consistency during dequeue operations.
  * 
  * Dependencies:
@@ -30,26 +38,39 @@ import java.util.concurrent.atomic.AtomicReference;
  * Date: 24 March 2025
  */
 
-public class CSPFriendlyJDKQueue implements QueueImpl
+public class CSPFriendlyJDKQueue<E> implements SizedQueueImpl<E>
 {
+    final BackoffPolicy backoff;
+
+    public CSPFriendlyJDKQueue()
+    {
+        this(BackoffPolicy.none());
+    }
+
+    public CSPFriendlyJDKQueue(BackoffPolicy backoff)
+    {
+        this.backoff = backoff;
+    }
 
     @Override
-    public void enqueue(TestQueue Q, Integer value) 
+    public void enqueue(TestQueue<E> Q, E value) 
     {
-        Node node = new Node();
-        AtomicReference<Integer> tmp_int = node.value;
+        Node<E> node = new Node<E>();
+        AtomicReference<E> tmp_int = node.value;
         tmp_int.set(value);
-        AtomicReference<Node> tmp_node = node.next;
+        AtomicReference<Node<E>> tmp_node = node.next;
         tmp_node.set(null);
         tmp_node = Q.tail;
-        Node tail = tmp_node.get();
-        Node pointer = tail;
+        Node<E> tail = tmp_node.get();
+        Node<E> pointer = tail;
+        int failures = 0;
         while (true)
         {
             tmp_node = pointer.next;
-            Node next = tmp_node.get();
+            Node<E> next = tmp_node.get();
             if (next == null)
             {
+                node.seq = pointer.seq + 1;
                 tmp_node = pointer.next;
                 boolean success = tmp_node.compareAndSet(null, node);
                 if (success)
@@ -61,11 +82,15 @@ public class CSPFriendlyJDKQueue implements QueueImpl
                     }
                     return;
                 }
+                else
+                {
+                    backoff.backoff(++failures);
+                }
             }
             else if (pointer == next)
             {
                 tmp_node = Q.tail;
-                Node tmp = tail;
+                Node<E> tmp = tail;
                 tail = tmp_node.get();
                 if (tmp != tail)
                 {
@@ -82,7 +107,7 @@ public class CSPFriendlyJDKQueue implements QueueImpl
                 if (pointer != tail)
                 {
                     tmp_node = Q.tail;
-                    Node tmp = tail;
+                    Node<E> tmp = tail;
                     tail = tmp_node.get();
                     if (tmp != tail)
                     {
@@ -102,18 +127,19 @@ public class CSPFriendlyJDKQueue implements QueueImpl
     }
 
     @Override
-    public Integer dequeue(TestQueue Q) 
+    public E dequeue(TestQueue<E> Q) 
     {
+        int failures = 0;
         restartFromHead: while (true)
         {
-            Node head = Q.head.get();
-            Node pointer = head;
-            Node next = null;
+            Node<E> head = Q.head.get();
+            Node<E> pointer = head;
+            Node<E> next = null;
             for (;;)
             {
-                AtomicReference<Node> tmp_node;
-                AtomicReference<Integer> tmp_int = pointer.value;
-                Integer item = tmp_int.get();
+                AtomicReference<Node<E>> tmp_node;
+                AtomicReference<E> tmp_int = pointer.value;
+                E item = tmp_int.get();
                 if (item != null)
                 {
                     tmp_int = pointer.value;
@@ -137,6 +163,7 @@ public class CSPFriendlyJDKQueue implements QueueImpl
                     }
                     else
                     {
+                        backoff.backoff(++failures);
                         tmp_node = pointer.next;
                         next = tmp_node.get();
                         if (next == null)
@@ -182,14 +209,14 @@ public class CSPFriendlyJDKQueue implements QueueImpl
         }
     }
 
-    void updateHead(TestQueue Q, Node head, Node pointer)
+    void updateHead(TestQueue<E> Q, Node<E> head, Node<E> pointer)
     {
         if (head != pointer)
         {
             boolean success = Q.head.compareAndSet(head, pointer);
             if (success)
             {
-                AtomicReference<Node> tmp_node = head.next;
+                AtomicReference<Node<E>> tmp_node = head.next;
                 tmp_node.set(head);
                 return;
             }
@@ -212,4 +239,103 @@ public class CSPFriendlyJDKQueue implements QueueImpl
         return "CSPFriendlyJDKQueue";
     }
 
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        restartFromHead: while (true)
+        {
+            AtomicReference<Node<E>> tmp_node = Q.head;
+            Node<E> pointer = tmp_node.get();
+            for (;;)
+            {
+                AtomicReference<E> tmp_int = pointer.value;
+                E item = tmp_int.get();
+                if (item != null)
+                {
+                    // Elements are claimed in list order, so every node from the
+                    // first unclaimed one to the last holds an element
+                    Node<E> last = last(Q, pointer);
+                    return Math.max(0, last.seq - pointer.seq + 1);
+                }
+                tmp_node = pointer.next;
+                Node<E> next = tmp_node.get();
+                if (next == null)
+                {
+                    return 0;
+                }
+                else if (pointer == next)
+                {
+                    continue restartFromHead;
+                }
+                else
+                {
+                    pointer = next;
+                }
+            }
+        }
+    }
+
+    // Follows next pointers from the tail to the last node. The tail may be
+    // behind first, or on a removed node, so fall back to first or the head then.
+    Node<E> last(TestQueue<E> Q, Node<E> first)
+    {
+        AtomicReference<Node<E>> tmp_node = Q.tail;
+        Node<E> pointer = tmp_node.get();
+        if (pointer.seq < first.seq)
+            pointer = first;
+        while (true)
+        {
+            tmp_node = pointer.next;
+            Node<E> next = tmp_node.get();
+            if (next == null)
+            {
+                return pointer;
+            }
+            else if (pointer == next)
+            {
+                tmp_node = Q.head;
+                next = tmp_node.get();
+                if (next == pointer)
+                    return pointer;
+                pointer = next;
+            }
+            else
+            {
+                pointer = next;
+            }
+        }
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        restartFromHead: while (true)
+        {
+            AtomicReference<Node<E>> tmp_node = Q.head;
+            Node<E> pointer = tmp_node.get();
+            for (;;)
+            {
+                AtomicReference<E> tmp_int = pointer.value;
+                E item = tmp_int.get();
+                if (item != null)
+                {
+                    return item;
+                }
+                tmp_node = pointer.next;
+                Node<E> next = tmp_node.get();
+                if (next == null)
+                {
+                    return null;
+                }
+                else if (pointer == next)
+                {
+                    continue restartFromHead;
+                }
+                else
+                {
+                    pointer = next;
+                }
+            }
+        }
+    }
 }
@@ -1,3 +1,5 @@
+package io.github.mattunlv.queue;
+
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -12,11 +14,17 @@ import java.util.concurrent.atomic.AtomicReference;
  * making it suitable for high-performance, multi-threaded applications.
  * 
  * Key Methods:
- * - enqueue(TestQueue Q, Integer value): Adds an element to the queue using 
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
  *   a lock-free algorithm.
- * - dequeue(TestQueue Q): Removes and returns an element from the queue using 
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
  *   a lock-free algorithm.
  * - getImplName(): Returns the name of the implementation.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the head and last nodes.
+ * - isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): Look at the node after the 
+ *   head without removing it.
+ * - CSPFriendlyPaperQueue(BackoffPolicy backoff): Creates the queue with a policy applied 
+ *   after each failed CAS on the link or the head. The default retries at once.
  * 
  * Dependencies:
  * - java.util.concurrent.atomic.AtomicReference: Used for atomic operations.
@@ -27,23 +35,36 @@ import java.util.concurrent.atomic.AtomicReference;
  * Date: 24 March 2025
  */
 
-public class CSPFriendlyPaperQueue implements QueueImpl
+public class CSPFriendlyPaperQueue<E> implements SizedQueueImpl<E>
 {
+    final BackoffPolicy backoff;
+
+    public CSPFriendlyPaperQueue()
+    {
+        this(BackoffPolicy.none());
+    }
+
+    public CSPFriendlyPaperQueue(BackoffPolicy backoff)
+    {
+        this.backoff = backoff;
+    }
+
     @Override
-    public void enqueue(TestQueue Q, Integer value) 
+    public void enqueue(TestQueue<E> Q, E value) 
     {
-        AtomicReference<Node> tmp_node;
-        AtomicReference<Integer> tmp_int;
+        AtomicReference<Node<E>> tmp_node;
+        AtomicReference<E> tmp_int;
         // node = new node
-        Node node = new Node();
+        Node<E> node = new Node<E>();
         // node->value = value
         tmp_int = node.value;
         tmp_int.set(value);
         // node->next.ptr = null
         tmp_node = node.next;
         tmp_node.set(null);
-        Node tail;
-        Node next;
+        Node<E> tail;
+        Node<E> next;
+        int failures = 0;
         while (true)
         {
             // tail = Q->tail
@@ -52,12 +73,14 @@ public class CSPFriendlyPaperQueue implements QueueImpl
             tmp_node = tail.next;
             next = tmp_node.get();
             // if tail == Q->tail
-            Node tmp = Q.tail.get();
+            Node<E> tmp = Q.tail.get();
             if (tail == tmp)
             {
                 // if next.ptr == null
                 if (next == null)
                 {
+                    // node->seq = tail.ptr->seq + 1
+                    node.seq = tail.seq + 1;
                     // if CAS(&tail.ptr->next, next, node)
                     tmp_node = tail.next;
                     boolean succ = tmp_node.compareAndSet(next, node);
@@ -69,6 +92,7 @@ public class CSPFriendlyPaperQueue implements QueueImpl
                     }
                     else
                     {
+                        backoff.backoff(++failures);
                         // loop
                         continue;
                     }
@@ -90,19 +114,20 @@ public class CSPFriendlyPaperQueue implements QueueImpl
     }
 
     @Override
-    public Integer dequeue(TestQueue Q) 
+    public E dequeue(TestQueue<E> Q) 
     {
+        int failures = 0;
         while (true)
         {
             // head = Q->head
-            Node head = Q.head.get();
+            Node<E> head = Q.head.get();
             // tail = Q->tail
-            Node tail = Q.tail.get();
+            Node<E> tail = Q.tail.get();
             // next = head->next
-            AtomicReference<Node> tmp = head.next;
-            Node next = tmp.get();
+            AtomicReference<Node<E>> tmp = head.next;
+            Node<E> next = tmp.get();
             // if head == Q->head
-            Node tmp_node = Q.head.get();
+            Node<E> tmp_node = Q.head.get();
             if (head == tmp_node)
             {
                 // if head.ptr == tail.ptr
@@ -120,8 +145,8 @@ public class CSPFriendlyPaperQueue implements QueueImpl
                 else
                 {
                     // *pvalue = next.ptr->value
-                    AtomicReference<Integer> tmp_int = next.value;
-                    Integer value = tmp_int.get();
+                    AtomicReference<E> tmp_int = next.value;
+                    E value = tmp_int.get();
                     // if CAS(&Q->Head, head, next_ptr)
                     boolean success = Q.head.compareAndSet(head, next);
                     if (success)
@@ -131,6 +156,7 @@ public class CSPFriendlyPaperQueue implements QueueImpl
                     }
                     else
                     {
+                        backoff.backoff(++failures);
                         // loop
                         continue;
                     }
@@ -150,4 +176,54 @@ public class CSPFriendlyPaperQueue implements QueueImpl
         return "CSPFriendlyPaperQueue";
     }
 
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        // head = Q->head, read first: the tail is never behind it
+        Node<E> head = Q.head.get();
+        // tail = Q->tail
+        Node<E> tail = Q.tail.get();
+        // next = tail.ptr->next, the tail may lag one node behind the last
+        AtomicReference<Node<E>> tmp_node = tail.next;
+        Node<E> next = tmp_node.get();
+        Node<E> last;
+        if (next != null)
+            last = next;
+        else
+            last = tail;
+        return Math.max(0, last.seq - head.seq);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        // head = Q->head
+        Node<E> head = Q.head.get();
+        // next = head->next, only the last node has a null next
+        AtomicReference<Node<E>> tmp_node = head.next;
+        return tmp_node.get() == null;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        while (true)
+        {
+            // head = Q->head
+            Node<E> head = Q.head.get();
+            // next = head->next
+            AtomicReference<Node<E>> tmp_node = head.next;
+            Node<E> next = tmp_node.get();
+            // if next.ptr == null
+            if (next == null)
+                return null;
+            // pvalue = next.ptr->value
+            AtomicReference<E> tmp_int = next.value;
+            E value = tmp_int.get();
+            // if head == Q->head, the value was first while it was read
+            Node<E> tmp = Q.head.get();
+            if (head == tmp)
+                return value;
+        }
+    }
 }
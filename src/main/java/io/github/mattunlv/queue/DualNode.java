@@ -0,0 +1,67 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * DualNode.java
+ *
+ * A node of DualQueue. A data node (isData) carries an element until a consumer 
+ * takes it, which sets item to null. A reservation node is appended by a 
+ * consumer waiting for an element. Its item is null until a producer fills it. 
+ * Either kind is cancelled by setting item to the node itself, when its waiting 
+ * thread is interrupted. waiter is the thread to unpark when the node is matched.
+ */
+
+public class DualNode
+{
+    public final boolean isData;
+    public volatile Object item;
+    public volatile DualNode next;
+    public volatile Thread waiter;
+
+    public static final VarHandle ITEM;
+    public static final VarHandle NEXT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ITEM = lookup.findVarHandle(DualNode.class, "item", Object.class);
+            NEXT = lookup.findVarHandle(DualNode.class, "next", DualNode.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public DualNode(Object item, boolean isData)
+    {
+        // Plain write, published by the CAS that links the node
+        ITEM.set(this, item);
+        this.isData = isData;
+    }
+
+    public boolean casItem(Object expected, Object update)
+    {
+        return ITEM.compareAndSet(this, expected, update);
+    }
+
+    public boolean casNext(DualNode expected, DualNode update)
+    {
+        return NEXT.compareAndSet(this, expected, update);
+    }
+
+    public boolean isCancelled()
+    {
+        return item == this;
+    }
+
+    // A node that updateHead has self-linked is no longer in the list
+    public boolean isOffList()
+    {
+        return next == this;
+    }
+}
@@ -0,0 +1,287 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * DualQueue.java
+ * 
+ * This class implements a dual queue, following Scherer and Scott's lock-free 
+ * dual queue as used by SynchronousQueue in its fair mode, with data nodes that 
+ * can be left in the queue as in LinkedTransferQueue. The list holds either 
+ * elements waiting for consumers or reservations by consumers waiting for 
+ * elements, never both. A producer that finds a reservation hands its element 
+ * straight to the waiting consumer and unparks it, so the consumer does not 
+ * poll.
+ * 
+ * Every operation either matches the first node of the opposite kind after the 
+ * head, by a CAS on its item, or appends a node of its own kind at the tail, by 
+ * a CAS on the tail's next as in the paper and JDK queues. Matched nodes are 
+ * removed by moving the head past them and self-linking the old head, as in 
+ * StructuredJDKQueue.
+ * 
+ * The four operations differ in what they do when there is nothing to match:
+ * - enqueue appends a data node and returns at once.
+ * - dequeue returns null and appends nothing, as every other QueueImpl does.
+ * - take appends a reservation and waits for a producer to fill it.
+ * - transfer appends a data node and waits for a consumer to take it.
+ * A waiting thread spins briefly if its node is first in line, then parks. An 
+ * interrupted take or transfer cancels its node (item = node) and throws 
+ * InterruptedException. Cancelled nodes are skipped by matching operations, and 
+ * unlinked by the cancelling thread as in SynchronousQueue's clean. The last 
+ * node cannot be unlinked, since a node may be appended after it at the same 
+ * time, so its predecessor is saved in cleanMe and it is unlinked by the next 
+ * cancellation instead. So however many operations are cancelled, at most one 
+ * cancelled node is left behind a waiting node that does not reach the head.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Hands the element to a waiting consumer, 
+ *   or adds it to the queue.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if there is 
+ *   none, without waiting.
+ * - take(TestQueue<E> Q): Removes and returns an element, waiting for a producer 
+ *   if necessary.
+ * - transfer(TestQueue<E> Q, E value): Hands the element to a consumer, waiting 
+ *   until one takes it.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the DualTestQueue this implementation operates on.
+ * 
+ * Dependencies:
+ * - DualTestQueue: Represents the queue structure.
+ * - DualNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class DualQueue<E> implements QueueImpl<E>
+{
+    // What xfer does when there is nothing to match
+    static final int NOW = 0;
+    static final int ASYNC = 1;
+    static final int SYNC = 2;
+    // Spins before parking for the first waiting node, none on a single CPU
+    static final int MAX_SPINS = (Runtime.getRuntime().availableProcessors() < 2) ? 0 : 512;
+    // Returned by xfer when a waiting operation was cancelled
+    static final Object CANCELLED = new Object();
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        if (value == null)
+            throw new NullPointerException();
+        xfer((DualTestQueue<E>)Q, value, true, ASYNC);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        return (E)xfer((DualTestQueue<E>)Q, null, false, NOW);
+    }
+
+    public E take(TestQueue<E> Q) throws InterruptedException
+    {
+        Object value = xfer((DualTestQueue<E>)Q, null, false, SYNC);
+        if (value == CANCELLED)
+        {
+            Thread.interrupted();
+            throw new InterruptedException();
+        }
+        return (E)value;
+    }
+
+    public void transfer(TestQueue<E> Q, E value) throws InterruptedException
+    {
+        if (value == null)
+            throw new NullPointerException();
+        if (xfer((DualTestQueue<E>)Q, value, true, SYNC) == CANCELLED)
+        {
+            Thread.interrupted();
+            throw new InterruptedException();
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "DualQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new DualTestQueue<E>();
+    }
+
+    /**
+     * Matches the first node of the opposite kind, or does what how says when 
+     * there is none. Returns the element taken (for a consumer), value (for a 
+     * producer), null if a NOW consumer found nothing, or CANCELLED.
+     */
+    Object xfer(DualTestQueue<E> q, Object value, boolean isData, int how)
+    {
+        DualNode s = null;
+        while (true)
+        {
+            DualNode t = q.tailNode;
+            DualNode h = q.headNode;
+            // Empty, or holding nodes of the same kind: append
+            if (h == t || t.isData == isData)
+            {
+                DualNode tn = t.next;
+                if (t != q.tailNode)
+                    continue;
+                // Lagging tail
+                if (tn != null)
+                {
+                    DualTestQueue.TAIL.compareAndSet(q, t, tn);
+                    continue;
+                }
+                if (how == NOW)
+                    return null;
+                if (s == null)
+                    s = new DualNode(value, isData);
+                if (!t.casNext(null, s))
+                    continue;
+                DualTestQueue.TAIL.compareAndSet(q, t, s);
+                if (how == ASYNC)
+                    return value;
+                return awaitMatch(q, s, t, value);
+            }
+            // Holding nodes of the other kind: match the first one
+            DualNode m = h.next;
+            if (t != q.tailNode || m == null || h != q.headNode)
+                continue;
+            Object x = m.item;
+            // m is already matched or cancelled, or the CAS lost to another thread
+            if (isData == (x != null) || x == m || !m.casItem(x, value))
+            {
+                updateHead(q, h, m);
+                continue;
+            }
+            updateHead(q, h, m);
+            LockSupport.unpark(m.waiter);
+            return (x != null) ? x : value;
+        }
+    }
+
+    Object awaitMatch(DualTestQueue<E> q, DualNode s, DualNode pred, Object value)
+    {
+        Thread w = Thread.currentThread();
+        int spins = (q.headNode.next == s) ? MAX_SPINS : 0;
+        while (true)
+        {
+            if (w.isInterrupted())
+                s.casItem(value, s);
+            Object x = s.item;
+            if (x != value)
+            {
+                if (x == s)
+                {
+                    clean(q, pred, s);
+                    return CANCELLED;
+                }
+                if (!s.isOffList())
+                {
+                    updateHead(q, pred, s);
+                    // Drop the element the node was filled with
+                    if (x != null)
+                        s.item = s;
+                }
+                s.waiter = null;
+                return (x != null) ? x : value;
+            }
+            if (spins > 0)
+            {
+                --spins;
+                Thread.onSpinWait();
+            }
+            // Register before the last check of item, so a match cannot miss us
+            else if (s.waiter == null)
+                s.waiter = w;
+            else
+                LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Unlinks the cancelled node s, whose predecessor when it was appended was 
+     * pred. If s is the last node, pred is saved in cleanMe instead, and the 
+     * node after the saved one is unlinked first.
+     */
+    void clean(DualTestQueue<E> q, DualNode pred, DualNode s)
+    {
+        s.waiter = null;
+        while (true)
+        {
+            // A cancelled pred may have been unlinked itself, leaving s after 
+            // another node
+            if (pred.isCancelled() && (pred = predecessor(q, s)) == null)
+                return;
+            // Done once s is no longer after pred
+            if (pred.next != s)
+                return;
+            DualNode h = q.headNode;
+            DualNode hn = h.next;
+            // Cancelled first node: move the head past it
+            if (hn != null && hn.isCancelled())
+            {
+                updateHead(q, h, hn);
+                continue;
+            }
+            DualNode t = q.tailNode;
+            if (t == h)
+                return;
+            DualNode tn = t.next;
+            if (t != q.tailNode)
+                continue;
+            // Lagging tail
+            if (tn != null)
+            {
+                DualTestQueue.TAIL.compareAndSet(q, t, tn);
+                continue;
+            }
+            // Not the last node: unlink it
+            if (s != t)
+            {
+                DualNode sn = s.next;
+                if (sn == s || pred.casNext(s, sn))
+                    return;
+            }
+            DualNode dp = q.cleanMe;
+            if (dp != null)
+            {
+                // Unlink the saved node, unless it is gone, matched or last
+                DualNode d = dp.next;
+                DualNode dn;
+                if (d == null || d == dp || !d.isCancelled() || (d != t && (dn = d.next) != null && dn != d && dp.casNext(d, dn)))
+                    DualTestQueue.CLEAN_ME.compareAndSet(q, dp, null);
+                // s is the saved node
+                if (dp == pred)
+                    return;
+            }
+            // Save s to be unlinked later
+            else if (DualTestQueue.CLEAN_ME.compareAndSet(q, null, pred))
+                return;
+        }
+    }
+
+    // Returns the node before s, or null if s is no longer in the list
+    DualNode predecessor(DualTestQueue<E> q, DualNode s)
+    {
+        DualNode p = q.headNode;
+        while (true)
+        {
+            DualNode n = p.next;
+            if (n == s)
+                return p;
+            if (n == null)
+                return null;
+            // p has left the list behind the head: start again
+            p = (n == p) ? q.headNode : n;
+        }
+    }
+
+    void updateHead(DualTestQueue<E> q, DualNode h, DualNode nh)
+    {
+        if (h != nh && DualTestQueue.HEAD.compareAndSet(q, h, nh))
+            DualNode.NEXT.setRelease(h, h);
+    }
+}
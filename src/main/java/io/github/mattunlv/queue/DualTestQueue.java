@@ -0,0 +1,47 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * DualTestQueue.java
+ *
+ * The queue structure used by DualQueue: the head and tail of a linked list of 
+ * DualNodes. The head is a dummy node, and the nodes after it are either all 
+ * data or all reservations. cleanMe is the predecessor of a cancelled node that 
+ * could not be unlinked when it was cancelled, because it was the last node.
+ */
+
+public class DualTestQueue<E> extends TestQueue<E>
+{
+    public volatile DualNode headNode;
+    public volatile DualNode tailNode;
+    public volatile DualNode cleanMe;
+
+    public static final VarHandle HEAD;
+    public static final VarHandle TAIL;
+    public static final VarHandle CLEAN_ME;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(DualTestQueue.class, "headNode", DualNode.class);
+            TAIL = lookup.findVarHandle(DualTestQueue.class, "tailNode", DualNode.class);
+            CLEAN_ME = lookup.findVarHandle(DualTestQueue.class, "cleanMe", DualNode.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public DualTestQueue()
+    {
+        super(null, null);
+        DualNode dummy = new DualNode(null, false);
+        this.headNode = dummy;
+        this.tailNode = dummy;
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * EliminationQueueImpl.java
+ * 
+ * This class puts an elimination array in front of any QueueImpl. An enqueue 
+ * first offers its value in a random slot and waits a few spins for a dequeue to 
+ * take it directly. Only if none does is the value enqueued on the wrapped queue. 
+ * A dequeue that finds the wrapped queue empty looks in a random slot and takes 
+ * the value it finds there. An enqueue and dequeue that meet in a slot never 
+ * touch the head or tail, which takes them out of the CAS contention on both.
+ * 
+ * Elimination is only linearizable while the queue is empty, since otherwise the 
+ * dequeue must return the oldest element. So after finding an offer a dequeue 
+ * calls the wrapped dequeue again. If that returns an element it returns it. If 
+ * it returns null, the queue was empty at that point, while the enqueue was 
+ * still waiting. Both operations are linearized there, enqueue then dequeue, 
+ * and the dequeue then claims the offer with a CAS. If the CAS fails the offer 
+ * has gone and the dequeue returns null, linearized at the same point.
+ * 
+ * An offer can only be taken when the queue is empty, so waiting costs an 
+ * enqueue time when the queue has a backlog. The number of spins an enqueue 
+ * waits adapts: it doubles when an offer is taken and halves when one times 
+ * out. At MIN_WINDOW enqueues stop offering, apart from one in every PROBE, 
+ * which finds out when elimination starts to pay again.
+ * 
+ * SizedEliminationQueueImpl adds size, isEmpty and peek when the wrapped 
+ * implementation has them.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Hands the value to a waiting dequeue, or 
+ *   adds it to the wrapped queue.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the wrapped 
+ *   queue or, if it is empty, takes an offered value. Returns null if neither 
+ *   has one.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates an EliminationTestQueue around a queue of the wrapped 
+ *   implementation.
+ * 
+ * Dependencies:
+ * - EliminationTestQueue: Represents the queue structure.
+ * - QueueImpl: The wrapped implementation.
+ */
+
+@SuppressWarnings("unchecked")
+public class EliminationQueueImpl<E> implements QueueImpl<E>
+{
+    // Bounds of the adaptive number of spins an offer waits
+    static final int MIN_WINDOW = 0;
+    static final int MAX_WINDOW = 256;
+    // At MIN_WINDOW, one enqueue in PROBE still makes an offer
+    static final int PROBE = 64;
+    // Spins a probing offer waits
+    static final int PROBE_WINDOW = 16;
+
+    final QueueImpl<E> impl;
+    final int slots;
+
+    public EliminationQueueImpl(QueueImpl<E> impl)
+    {
+        this(impl, Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    public EliminationQueueImpl(QueueImpl<E> impl, int slots)
+    {
+        if (slots < 1)
+            throw new IllegalArgumentException("Slots must be at least 1: " + slots);
+        this.impl = impl;
+        this.slots = slots;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        EliminationTestQueue<E> q = (EliminationTestQueue<E>)Q;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int window = q.window;
+        if (window == MIN_WINDOW)
+            window = (random.nextInt(PROBE) == 0) ? PROBE_WINDOW : MIN_WINDOW;
+        if (window > MIN_WINDOW && offer(q, value, random.nextInt(slots), window))
+            return;
+        impl.enqueue(q.queue, value);
+    }
+
+    // Returns true if a dequeue took the value
+    boolean offer(EliminationTestQueue<E> q, E value, int slot, int window)
+    {
+        EliminationTestQueue.Offer<E> offer = new EliminationTestQueue.Offer<E>(value);
+        if (!EliminationTestQueue.SLOTS.compareAndSet(q.slots, slot, null, offer))
+            return false;
+        for (int i = 0; i < window; ++i)
+        {
+            if (EliminationTestQueue.SLOTS.getAcquire(q.slots, slot) != offer)
+            {
+                taken(q);
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+        // Withdraw, unless a dequeue claims the offer first
+        if (EliminationTestQueue.SLOTS.compareAndSet(q.slots, slot, offer, null))
+        {
+            q.window = q.window >> 1;
+            return false;
+        }
+        taken(q);
+        return true;
+    }
+
+    void taken(EliminationTestQueue<E> q)
+    {
+        int window = q.window;
+        q.window = (window == MIN_WINDOW) ? PROBE_WINDOW : Math.min(MAX_WINDOW, window << 1);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        EliminationTestQueue<E> q = (EliminationTestQueue<E>)Q;
+        E value = impl.dequeue(q.queue);
+        if (value != null)
+            return value;
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        Object offer = EliminationTestQueue.SLOTS.getAcquire(q.slots, slot);
+        if (offer == null)
+            return null;
+        // Linearization point: the queue must be empty while the offer is waiting
+        value = impl.dequeue(q.queue);
+        if (value != null)
+            return value;
+        if (EliminationTestQueue.SLOTS.compareAndSet(q.slots, slot, offer, null))
+            return ((EliminationTestQueue.Offer<E>)offer).value;
+        return null;
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        EliminationTestQueue<E> q = (EliminationTestQueue<E>)Q;
+        impl.enqueueAll(q.queue, values);
+    }
+
+    @Override
+    public int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        EliminationTestQueue<E> q = (EliminationTestQueue<E>)Q;
+        int count = impl.drainTo(q.queue, sink, max);
+        // An empty queue may still have a waiting offer to take
+        if (count < max)
+        {
+            E value = dequeue(Q);
+            if (value != null)
+            {
+                sink.add(value);
+                ++count;
+            }
+        }
+        return count;
+    }
+
+
+
+
+    @Override
+    public String getImplName() 
+    {
+        return "Elimination" + impl.getImplName();
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new EliminationTestQueue<E>(impl.newQueue(), slots);
+    }
+}
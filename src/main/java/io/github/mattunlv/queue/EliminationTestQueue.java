@@ -0,0 +1,42 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * EliminationTestQueue.java
+ *
+ * The queue structure used by EliminationQueueImpl: the queue of the wrapped 
+ * implementation plus the elimination array. A slot is null or holds the Offer 
+ * of an enqueuer waiting for a dequeuer. window is the adaptive number of spins 
+ * an enqueuer waits in a slot. Updates to it are racy on purpose, since it is 
+ * only a hint.
+ */
+
+public class EliminationTestQueue<E> extends TestQueue<E>
+{
+    // One value offered by one enqueue. Offers are never reused, so a slot 
+    // holding the same Offer has not changed hands in between.
+    public static final class Offer<E>
+    {
+        public final E value;
+
+        public Offer(E value)
+        {
+            this.value = value;
+        }
+    }
+
+    public final TestQueue<E> queue;
+    public final Object[] slots;
+    public volatile int window = EliminationQueueImpl.MIN_WINDOW;
+
+    public static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    public EliminationTestQueue(TestQueue<E> queue, int slots)
+    {
+        super(null, null);
+        this.queue = queue;
+        this.slots = new Object[slots];
+    }
+}
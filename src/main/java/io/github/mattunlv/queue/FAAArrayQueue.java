@@ -0,0 +1,125 @@
+package io.github.mattunlv.queue;
+
+/**
+ * FAAArrayQueue.java
+ * 
+ * This class implements a lock-free queue over a linked list of array segments, 
+ * following Ramalhete and Correia's FAAArrayQueue (a simplification of LCRQ). 
+ * Producers and consumers claim slots with getAndIncrement on the enqueue and 
+ * dequeue indices of a segment, which never fails. A thread only CASes once it 
+ * has claimed its slot, and that CAS only competes with the one thread that 
+ * claimed the same slot from the other end. Threads CAS Q->tail or Q->head only 
+ * when a segment fills up, once every FAASegment.SIZE elements. The paper and 
+ * JDK queues instead retry a CAS on a single pointer for every element, and 
+ * those retries multiply with the number of threads.
+ * 
+ * A consumer that reaches a slot before its producer marks it TAKEN with 
+ * getAndSet, and the producer's CAS then fails. The producer claims another 
+ * slot, and the consumer claims another index. Each such race wastes a slot, and 
+ * a consumer that keeps overtaking a producer can make it retry indefinitely, so 
+ * the queue is lock-free but not wait-free.
+ * 
+ * dequeue returns null only when its segment has no unclaimed elements and no 
+ * next segment. This is checked before claiming an index, so an empty queue is 
+ * not used up by consumers polling it.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the FAATestQueue this implementation operates on.
+ * 
+ * Dependencies:
+ * - FAATestQueue: Represents the queue structure.
+ * - FAASegment: Represents a segment of the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class FAAArrayQueue<E> implements QueueImpl<E>
+{
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        FAATestQueue<E> q = (FAATestQueue<E>)Q;
+        while (true)
+        {
+            // tail = Q->tail
+            FAASegment<E> tail = q.tailSegment;
+            // index = FAA(&tail->enqIdx, 1)
+            int index = (int)FAASegment.ENQ_IDX.getAndAdd(tail, 1);
+            if (index >= FAASegment.SIZE)
+            {
+                // The segment is full: append a new one or help move the tail
+                if (tail != q.tailSegment)
+                    continue;
+                FAASegment<E> next = tail.next;
+                if (next == null)
+                {
+                    FAASegment<E> segment = new FAASegment<E>(value);
+                    // if CAS(&tail->next, null, segment)
+                    if (FAASegment.NEXT.compareAndSet(tail, null, segment))
+                    {
+                        // CAS(&Q->tail, tail, segment)
+                        FAATestQueue.TAIL.compareAndSet(q, tail, segment);
+                        return;
+                    }
+                }
+                else
+                {
+                    // CAS(&Q->tail, tail, next)
+                    FAATestQueue.TAIL.compareAndSet(q, tail, next);
+                }
+                continue;
+            }
+            // if CAS(&tail->items[index], null, value), else a consumer took the slot
+            if (FAASegment.ITEMS.compareAndSet(tail.items, index, null, value))
+                return;
+        }
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        FAATestQueue<E> q = (FAATestQueue<E>)Q;
+        while (true)
+        {
+            // head = Q->head
+            FAASegment<E> head = q.headSegment;
+            // if head->deqIdx >= head->enqIdx and head->next == null
+            if (head.deqIdx >= head.enqIdx && head.next == null)
+                return null;
+            // index = FAA(&head->deqIdx, 1)
+            int index = (int)FAASegment.DEQ_IDX.getAndAdd(head, 1);
+            if (index >= FAASegment.SIZE)
+            {
+                // The segment is used up: move the head on, unless it is the last one
+                FAASegment<E> next = head.next;
+                if (next == null)
+                    return null;
+                // CAS(&Q->head, head, next)
+                FAATestQueue.HEAD.compareAndSet(q, head, next);
+                continue;
+            }
+            // value = XCHG(&head->items[index], TAKEN)
+            Object value = FAASegment.ITEMS.getAndSet(head.items, index, FAASegment.TAKEN);
+            // The producer of this slot has not written it yet, and now never will
+            if (value == null)
+                continue;
+            return (E)value;
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "FAAArrayQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new FAATestQueue<E>();
+    }
+}
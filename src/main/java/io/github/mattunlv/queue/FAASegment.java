@@ -0,0 +1,61 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * FAASegment.java
+ *
+ * A segment of the linked list used by FAAArrayQueue: an array of SIZE slots, 
+ * the enqueue and dequeue indices that threads claim slots with by fetch-and-add, 
+ * and the next segment. The indices keep counting past SIZE, since threads that 
+ * overshoot still increment them. Any index of SIZE or more means the segment is 
+ * used up.
+ *
+ * A slot is null until its producer writes the element, and TAKEN once a 
+ * consumer has claimed it. A consumer that gets to a slot before its producer 
+ * marks it TAKEN, and the producer then moves on to another index.
+ */
+
+public class FAASegment<E>
+{
+    public static final int SIZE = 1024;
+    public static final Object TAKEN = new Object();
+
+    public final Object[] items = new Object[SIZE];
+    public volatile int enqIdx;
+    public volatile int deqIdx;
+    public volatile FAASegment<E> next;
+
+    public static final VarHandle ITEMS = MethodHandles.arrayElementVarHandle(Object[].class);
+    public static final VarHandle ENQ_IDX;
+    public static final VarHandle DEQ_IDX;
+    public static final VarHandle NEXT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ENQ_IDX = lookup.findVarHandle(FAASegment.class, "enqIdx", int.class);
+            DEQ_IDX = lookup.findVarHandle(FAASegment.class, "deqIdx", int.class);
+            NEXT = lookup.findVarHandle(FAASegment.class, "next", FAASegment.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public FAASegment()
+    {
+    }
+
+    // A segment that starts with value in slot 0, already claimed
+    public FAASegment(E value)
+    {
+        // Plain writes, published by the CAS that links the segment
+        ITEMS.set(items, 0, value);
+        ENQ_IDX.set(this, 1);
+    }
+}
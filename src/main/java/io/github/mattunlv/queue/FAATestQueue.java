@@ -0,0 +1,43 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * FAATestQueue.java
+ *
+ * The queue structure used by FAAArrayQueue: a linked list of FAASegments with 
+ * the head segment, from which elements are dequeued, and the tail segment, to 
+ * which they are enqueued.
+ */
+
+public class FAATestQueue<E> extends TestQueue<E>
+{
+    public volatile FAASegment<E> headSegment;
+    public volatile FAASegment<E> tailSegment;
+
+    public static final VarHandle HEAD;
+    public static final VarHandle TAIL;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(FAATestQueue.class, "headSegment", FAASegment.class);
+            TAIL = lookup.findVarHandle(FAATestQueue.class, "tailSegment", FAASegment.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public FAATestQueue()
+    {
+        super(null, null);
+        FAASegment<E> segment = new FAASegment<E>();
+        this.headSegment = segment;
+        this.tailSegment = segment;
+    }
+}
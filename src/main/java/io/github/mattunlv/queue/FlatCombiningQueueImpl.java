@@ -0,0 +1,178 @@
+package io.github.mattunlv.queue;
+
+import java.util.Objects;
+
+/**
+ * FlatCombiningQueueImpl.java
+ * 
+ * This class implements a queue by flat combining (Hendler, Incze, Shavit and 
+ * Tzafrir). Instead of every thread racing to CAS the head or tail, a thread 
+ * writes its operation into its own publication record and waits. Whichever 
+ * thread takes the combiner lock applies all the published operations to a 
+ * sequential ArrayDeque in one pass and writes back their results. Only the 
+ * combiner touches the deque, so its cache lines stay in one core, and the lock 
+ * is taken once per batch rather than once per operation.
+ * 
+ * Records that stay idle for MAX_IDLE combines are retired by the combiner, 
+ * which frees their slots for other threads (see FlatCombiningTestQueue).
+ * 
+ * A waiting thread spins on its own record and tries the lock whenever it is 
+ * free, so an operation completes either by being combined or by combining. Each 
+ * operation takes effect while the combiner applies it, which is after it was 
+ * published and before its thread sees DONE, so the queue is linearizable. It is 
+ * blocking: a combiner that is descheduled holds up every waiting thread. With 
+ * few threads the lock and the hand-off cost more than a CAS, so the lock-free 
+ * queues are faster until contention is high. RunQueueBenchmarks and 
+ * QueueBenchmark show where the crossover is on a given host.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Publishes an enqueue and waits until it 
+ *   has been combined. A null value is rejected before it is published, since 
+ *   the combiner's ArrayDeque would throw in the combining thread instead.
+ * - dequeue(TestQueue<E> Q): Publishes a dequeue and waits for its result, or 
+ *   null if the queue was empty.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the FlatCombiningTestQueue this implementation operates 
+ *   on.
+ * 
+ * Dependencies:
+ * - FlatCombiningTestQueue: Represents the queue structure and its publication 
+ *   records.
+ */
+
+@SuppressWarnings("unchecked")
+public class FlatCombiningQueueImpl<E> implements QueueImpl<E>
+{
+    // Passes over the records a combiner makes while it keeps finding operations
+    static final int COMBINE_PASSES = 3;
+    // Every CLEANUP_INTERVAL combines, records idle for more than MAX_IDLE
+    // combines are retired and their slots freed
+    static final int CLEANUP_INTERVAL = 64;
+    static final int MAX_IDLE = 1024;
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        Objects.requireNonNull(value);
+        apply((FlatCombiningTestQueue<E>)Q, FlatCombiningTestQueue.ENQUEUE, value);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        return (E)apply((FlatCombiningTestQueue<E>)Q, FlatCombiningTestQueue.DEQUEUE, null);
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "FlatCombiningQueueImpl";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new FlatCombiningTestQueue<E>();
+    }
+
+    Object apply(FlatCombiningTestQueue<E> q, int op, Object value)
+    {
+        FlatCombiningTestQueue.Record r = q.record();
+        while (true)
+        {
+            if (r.state == FlatCombiningTestQueue.RETIRED && !q.insert(r))
+            {
+                // No slot to publish in: do the operation under the lock, and
+                // combine for the others while holding it
+                q.lock();
+                try
+                {
+                    combine(q);
+                    return execute(q, op, value);
+                }
+                finally
+                {
+                    q.unlock();
+                }
+            }
+            r.value = value;
+            // Publish the operation, unless the combiner has just retired the record
+            if (FlatCombiningTestQueue.STATE.compareAndSet(r, FlatCombiningTestQueue.IDLE, op))
+                break;
+        }
+        while (r.state != FlatCombiningTestQueue.DONE)
+        {
+            if (q.tryLock())
+            {
+                try
+                {
+                    combine(q);
+                }
+                finally
+                {
+                    q.unlock();
+                }
+            }
+            else
+                Thread.onSpinWait();
+        }
+        Object result = r.value;
+        r.value = null;
+        r.state = FlatCombiningTestQueue.IDLE;
+        return result;
+    }
+
+    // Called with the lock held
+    void combine(FlatCombiningTestQueue<E> q)
+    {
+        int combines = q.combines + 1;
+        q.combines = combines;
+        int count = q.recordCount;
+        for (int pass = 0; pass < COMBINE_PASSES; ++pass)
+        {
+            boolean found = false;
+            for (int i = 0; i < count; ++i)
+            {
+                FlatCombiningTestQueue.Record r = (FlatCombiningTestQueue.Record)FlatCombiningTestQueue.RECORDS.getAcquire(q.records, i);
+                // Free slot
+                if (r == null)
+                    continue;
+                int op = r.state;
+                if (op == FlatCombiningTestQueue.ENQUEUE || op == FlatCombiningTestQueue.DEQUEUE)
+                {
+                    r.value = execute(q, op, r.value);
+                    r.lastUsed = combines;
+                    // Hand the result back to the waiting thread
+                    r.state = FlatCombiningTestQueue.DONE;
+                    found = true;
+                }
+            }
+            if (!found)
+                break;
+        }
+        if (combines % CLEANUP_INTERVAL == 0)
+            cleanup(q, combines);
+    }
+
+    // Called with the lock held. Retires the records that have been idle too long.
+    void cleanup(FlatCombiningTestQueue<E> q, int combines)
+    {
+        int count = q.recordCount;
+        for (int i = 0; i < count; ++i)
+        {
+            FlatCombiningTestQueue.Record r = (FlatCombiningTestQueue.Record)FlatCombiningTestQueue.RECORDS.getAcquire(q.records, i);
+            if (r != null && r.state == FlatCombiningTestQueue.IDLE && combines - r.lastUsed > MAX_IDLE)
+                q.retire(i, r);
+        }
+    }
+
+    Object execute(FlatCombiningTestQueue<E> q, int op, Object value)
+    {
+        if (op == FlatCombiningTestQueue.ENQUEUE)
+        {
+            q.queue.addLast(value);
+            return null;
+        }
+        return q.queue.pollFirst();
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+
+/**
+ * FlatCombiningTestQueue.java
+ *
+ * The queue structure used by FlatCombiningQueueImpl: a sequential ArrayDeque 
+ * that only the thread holding the combiner lock touches, and an array of 
+ * publication records through which other threads hand it their operations.
+ *
+ * Each thread has its own record, kept in a ThreadLocal, and inserts it into a 
+ * free slot of the array the first time it uses the queue. There are 
+ * MAX_RECORDS slots. A thread that finds none free operates directly under the 
+ * lock and tries again on its next operation. The combiner ages records out: 
+ * one that has been idle for a number of combines is retired and its slot 
+ * freed, so the slots of threads that have exited or gone quiet pass to new 
+ * threads. A retired record's owner inserts it again when it next publishes.
+ *
+ * A record only leaves IDLE by a CAS, either the owner's publishing an 
+ * operation or the combiner's retiring it, so a record is never retired while 
+ * its owner is waiting on it.
+ */
+
+public class FlatCombiningTestQueue<E> extends TestQueue<E>
+{
+    public static final int MAX_RECORDS = 128;
+    // Record states
+    public static final int IDLE = 0;
+    public static final int ENQUEUE = 1;
+    public static final int DEQUEUE = 2;
+    public static final int DONE = 3;
+    public static final int RETIRED = 4;
+
+    public static final class Record
+    {
+        // The element to enqueue, or the element dequeued, published by state
+        public Object value;
+        // Not in the array until it is inserted
+        public volatile int state = RETIRED;
+        // The combine in which the record was last inserted or served
+        public volatile int lastUsed;
+    }
+
+    public final ArrayDeque<Object> queue = new ArrayDeque<Object>();
+    public final Record[] records = new Record[MAX_RECORDS];
+    // One more than the highest slot ever filled, so the combiner scans no further
+    public volatile int recordCount;
+    // Number of combines so far, only incremented by the combiner
+    public volatile int combines;
+    public volatile int locked;
+    final ThreadLocal<Record> record = ThreadLocal.withInitial(Record::new);
+
+    public static final VarHandle RECORDS = MethodHandles.arrayElementVarHandle(Record[].class);
+    public static final VarHandle STATE;
+    public static final VarHandle RECORD_COUNT;
+    public static final VarHandle LOCKED;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATE = lookup.findVarHandle(Record.class, "state", int.class);
+            RECORD_COUNT = lookup.findVarHandle(FlatCombiningTestQueue.class, "recordCount", int.class);
+            LOCKED = lookup.findVarHandle(FlatCombiningTestQueue.class, "locked", int.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public FlatCombiningTestQueue()
+    {
+        super(null, null);
+    }
+
+    // The calling thread's record, which may be retired
+    public Record record()
+    {
+        return record.get();
+    }
+
+    // Puts a retired record into a free slot as IDLE. Returns false if there is
+    // no free slot.
+    public boolean insert(Record r)
+    {
+        r.state = IDLE;
+        r.lastUsed = combines;
+        for (int i = 0; i < MAX_RECORDS; ++i)
+        {
+            if (RECORDS.getAcquire(records, i) == null && RECORDS.compareAndSet(records, i, null, r))
+            {
+                // Extend the combiner's scan to this slot before publishing in it
+                int count;
+                while ((count = recordCount) <= i && !RECORD_COUNT.compareAndSet(this, count, i + 1))
+                    ;
+                return true;
+            }
+        }
+        r.state = RETIRED;
+        return false;
+    }
+
+    // Called by the combiner with the lock held. Returns false if the owner
+    // published an operation first.
+    public boolean retire(int index, Record r)
+    {
+        if (!STATE.compareAndSet(r, IDLE, RETIRED))
+            return false;
+        RECORDS.setRelease(records, index, null);
+        return true;
+    }
+
+    public boolean tryLock()
+    {
+        return locked == 0 && LOCKED.compareAndSet(this, 0, 1);
+    }
+
+    public void lock()
+    {
+        while (!tryLock())
+            Thread.onSpinWait();
+    }
+
+    public void unlock()
+    {
+        LOCKED.setRelease(this, 0);
+    }
+}
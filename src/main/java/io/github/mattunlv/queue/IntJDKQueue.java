@@ -0,0 +1,95 @@
+package io.github.mattunlv.queue;
+
+/**
+ * IntJDKQueue.java
+ * 
+ * This class implements the ConcurrentLinkedQueue-style algorithm of 
+ * VarHandleJDKQueue for primitive int elements. Where the Integer version claims 
+ * an element by CASing the node value to null, this version CASes the node's 
+ * taken flag from 0 to 1 and leaves the value untouched.
+ * 
+ * An empty queue is reported by returning IntQueueImpl.EMPTY, which therefore 
+ * cannot itself be enqueued.
+ * 
+ * Key Methods:
+ * - enqueueInt(IntTestQueue Q, int value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeueInt(IntTestQueue Q): Removes and returns an element from the queue, 
+ *   or EMPTY, using a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - updateHead(IntTestQueue Q, IntNode head, IntNode pointer): Updates the head 
+ *   of the queue to maintain consistency during dequeue operations.
+ * 
+ * Dependencies:
+ * - IntTestQueue: Represents the queue structure.
+ * - IntNode: Represents a node in the queue.
+ */
+
+public class IntJDKQueue implements IntQueueImpl
+{
+
+    @Override
+    public void enqueueInt(IntTestQueue Q, int value) 
+    {
+        if (value == EMPTY)
+            throw new IllegalArgumentException("EMPTY cannot be enqueued");
+        IntNode node = new IntNode(value, false);
+        IntNode tail = Q.tail;
+        IntNode pointer = tail;
+        while (true)
+        {
+            IntNode next = (IntNode)IntNode.NEXT.getAcquire(pointer);
+            if (next == null)
+            {
+                if (IntNode.NEXT.compareAndSet(pointer, null, node))
+                {
+                    if (pointer != tail)
+                        IntTestQueue.TAIL.compareAndSet(Q, tail, node);
+                    return;
+                }
+            }
+            else if (pointer == next)
+                pointer = (tail != (tail = Q.tail)) ? tail : Q.head;
+            else
+                pointer = (pointer != tail && tail != (tail = Q.tail)) ? tail : next;
+        }
+    }
+
+    @Override
+    public int dequeueInt(IntTestQueue Q) 
+    {
+        restartFromHead: while (true)
+        {
+            for (IntNode head = Q.head, pointer = head, next;; pointer = next)
+            {
+                if (pointer.taken == 0 && IntNode.TAKEN.compareAndSet(pointer, 0, 1))
+                {
+                    if (pointer != head)
+                        updateHead(Q, head, ((next = (IntNode)IntNode.NEXT.getAcquire(pointer)) != null) ? next : pointer);
+                    return pointer.value;
+                }
+                else if ((next = (IntNode)IntNode.NEXT.getAcquire(pointer)) == null)
+                {
+                    updateHead(Q, head, pointer);
+                    return EMPTY;
+                }
+                else if (pointer == next)
+                {
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "IntJDKQueue";
+    }
+
+    void updateHead(IntTestQueue Q, IntNode head, IntNode pointer)
+    {
+        if (head != pointer && IntTestQueue.HEAD.compareAndSet(Q, head, pointer))
+            IntNode.NEXT.setRelease(head, head);
+    }
+}
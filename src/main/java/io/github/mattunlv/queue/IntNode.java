@@ -0,0 +1,47 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * IntNode.java
+ *
+ * A queue node holding a primitive int, so that moving an element through the 
+ * queue never boxes it. The value is written once before the node is linked and 
+ * never changes afterwards.
+ *
+ * The JDK-style algorithm claims an element by CASing its value to null. An int 
+ * has no null, so that algorithm claims the node by CASing taken from 0 to 1 
+ * instead. The paper algorithm does not use taken.
+ */
+
+public class IntNode
+{
+    public final int value;
+    public volatile int taken;
+    public volatile IntNode next;
+
+    public static final VarHandle TAKEN;
+    public static final VarHandle NEXT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAKEN = lookup.findVarHandle(IntNode.class, "taken", int.class);
+            NEXT = lookup.findVarHandle(IntNode.class, "next", IntNode.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public IntNode(int value, boolean taken)
+    {
+        this.value = value;
+        // Plain write, published by the CAS that links the node
+        TAKEN.set(this, taken ? 1 : 0);
+    }
+}
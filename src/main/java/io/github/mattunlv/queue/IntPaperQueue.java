@@ -0,0 +1,105 @@
+package io.github.mattunlv.queue;
+
+/**
+ * IntPaperQueue.java
+ * 
+ * This class implements Michael and Scott's lock-free queue, following the same 
+ * structure as VarHandlePaperQueue, for primitive int elements. Elements are 
+ * stored directly in IntNode, so enqueue allocates only the node and dequeue 
+ * allocates nothing.
+ * 
+ * An empty queue is reported by returning IntQueueImpl.EMPTY, which therefore 
+ * cannot itself be enqueued.
+ * 
+ * Key Methods:
+ * - enqueueInt(IntTestQueue Q, int value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeueInt(IntTestQueue Q): Removes and returns an element from the queue, 
+ *   or EMPTY, using a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * 
+ * Dependencies:
+ * - IntTestQueue: Represents the queue structure.
+ * - IntNode: Represents a node in the queue.
+ */
+
+public class IntPaperQueue implements IntQueueImpl
+{
+    @Override
+    public void enqueueInt(IntTestQueue Q, int value)
+    {
+        if (value == EMPTY)
+            throw new IllegalArgumentException("EMPTY cannot be enqueued");
+        // node = new node, node->value = value, node->next.ptr = null
+        IntNode node = new IntNode(value, false);
+        IntNode tail;
+        IntNode next;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = Q.tail;
+            // next = tail.ptr->next
+            next = (IntNode)IntNode.NEXT.getAcquire(tail);
+            // if tail == Q->tail
+            if (tail == Q.tail)
+            {
+                // if next.ptr == null
+                if (next == null)
+                {
+                    // if CAS(&tail.ptr->next, next, node)
+                    if (IntNode.NEXT.compareAndSet(tail, next, node))
+                        break;
+                }
+                else
+                {
+                    // CAS(Q->tail, tail, next.ptr)
+                    IntTestQueue.TAIL.compareAndSet(Q, tail, next);
+                }
+            }
+        }
+        // CAS(&Q->tail, tail, node)
+        IntTestQueue.TAIL.compareAndSet(Q, tail, node);
+    }
+
+    @Override
+    public int dequeueInt(IntTestQueue Q)
+    {
+        int value;
+        while (true)
+        {
+            // head = Q->head
+            IntNode head = Q.head;
+            // tail = Q->tail
+            IntNode tail = Q.tail;
+            // next = head->next
+            IntNode next = (IntNode)IntNode.NEXT.getAcquire(head);
+            // if head == Q->head
+            if (head == Q.head)
+            {
+                // if head.ptr == tail.ptr
+                if (head == tail)
+                {
+                    // if next.ptr = null
+                    if (next == null)
+                        return EMPTY;
+                    // CAS(&Q->Tail, tail, next.ptr)
+                    IntTestQueue.TAIL.compareAndSet(Q, tail, next);
+                }
+                else
+                {
+                    // pvalue = next.ptr->value
+                    value = next.value;
+                    if (IntTestQueue.HEAD.compareAndSet(Q, head, next))
+                        break;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "IntPaperQueue";
+    }
+}
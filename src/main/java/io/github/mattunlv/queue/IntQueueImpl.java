@@ -0,0 +1,19 @@
+package io.github.mattunlv.queue;
+
+public interface IntQueueImpl 
+{
+    // Returned by dequeueInt when the queue is empty. It cannot be enqueued.
+    public static final int EMPTY = Integer.MIN_VALUE;
+
+    public void enqueueInt(IntTestQueue Q, int value);
+
+    public int dequeueInt(IntTestQueue Q);
+
+    public String getImplName();
+
+    // Creates an empty queue for this implementation to operate on
+    public default IntTestQueue newQueue()
+    {
+        return new IntTestQueue();
+    }
+}
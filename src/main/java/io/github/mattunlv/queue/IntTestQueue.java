@@ -0,0 +1,36 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+public class IntTestQueue 
+{
+    public volatile IntNode head;
+    public volatile IntNode tail;
+
+    public static final VarHandle HEAD;
+    public static final VarHandle TAIL;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(IntTestQueue.class, "head", IntNode.class);
+            TAIL = lookup.findVarHandle(IntTestQueue.class, "tail", IntNode.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public IntTestQueue()
+    {
+        // Node = new node (the dummy node holds no element)
+        IntNode node = new IntNode(IntQueueImpl.EMPTY, true);
+        // Q->head = Q->tail = node
+        this.head = node;
+        this.tail = node;
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+
+/**
+ * LanedPriorityQueueImpl.java
+ * 
+ * This class builds a priority queue from a fixed number of lanes, each a FIFO 
+ * queue of the wrapped implementation. Lane 0 has the highest priority. Each 
+ * lane keeps its own FIFO order, and dequeue takes from the highest-priority lane 
+ * with an element. Lanes are found through a bitmap of lanes that may be 
+ * non-empty, so dequeue goes straight to the right lane instead of polling empty 
+ * ones. There can be at most 64 lanes.
+ * 
+ * The bitmap is kept without locks. An enqueue sets its lane's bit after adding 
+ * the element, with an atomic OR only when the bit is clear. A dequeue that finds 
+ * a lane empty clears the bit and then tries the lane once more. If that finds an 
+ * element, an enqueue raced the clear, so the bit is set again. A set bit on an 
+ * empty lane only costs the next dequeue a retry, and a clear bit on a non-empty 
+ * lane cannot last beyond the enqueue that caused it.
+ * 
+ * Priority across lanes is not linearizable: a dequeue can miss an element whose 
+ * enqueue has not yet set its bit, and take a lower-priority one instead. Order 
+ * within a lane is that of the wrapped implementation.
+ * 
+ * Strict priority lets a busy high lane starve the lanes below it. Constructing 
+ * with weights enables weighted round-robin instead: over every sum(weights) 
+ * dequeues, lane i is tried first weights[i] times, so each backlogged lane gets 
+ * at least its share. When the preferred lane is empty, dequeue falls back to 
+ * strict priority.
+ * 
+ * SizedLanedPriorityQueueImpl adds size, isEmpty and peek when the wrapped 
+ * implementation has them.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, int lane, E value): Adds an element to a lane.
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the lowest-priority lane.
+ * - dequeue(TestQueue<E> Q): Removes and returns the first element of the 
+ *   highest-priority non-empty lane (or of the preferred lane when weighted), or 
+ *   null if every lane is empty.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates a LanedPriorityTestQueue with a queue of the wrapped 
+ *   implementation per lane.
+ * 
+ * Dependencies:
+ * - LanedPriorityTestQueue: Represents the queue structure.
+ * - QueueImpl: The wrapped implementation.
+ */
+
+public class LanedPriorityQueueImpl<E> implements QueueImpl<E>
+{
+    final QueueImpl<E> impl;
+    final int lanes;
+    // Lane to try first for each ticket, or null for strict priority
+    final int[] schedule;
+
+    public LanedPriorityQueueImpl(QueueImpl<E> impl, int lanes)
+    {
+        if (lanes < 1 || lanes > 64)
+            throw new IllegalArgumentException("Lanes must be between 1 and 64: " + lanes);
+        this.impl = impl;
+        this.lanes = lanes;
+        this.schedule = null;
+    }
+
+    public LanedPriorityQueueImpl(QueueImpl<E> impl, int[] weights)
+    {
+        if (weights.length < 1 || weights.length > 64)
+            throw new IllegalArgumentException("Lanes must be between 1 and 64: " + weights.length);
+        int total = 0;
+        for (int weight : weights)
+        {
+            if (weight < 1)
+                throw new IllegalArgumentException("Weights must be at least 1: " + weight);
+            total += weight;
+        }
+        this.impl = impl;
+        this.lanes = weights.length;
+        this.schedule = interleave(weights, total);
+    }
+
+    // Smooth weighted round-robin: spreads each lane's turns evenly over the cycle
+    static int[] interleave(int[] weights, int total)
+    {
+        int[] schedule = new int[total];
+        int[] current = new int[weights.length];
+        for (int t = 0; t < total; ++t)
+        {
+            int best = 0;
+            for (int i = 0; i < weights.length; ++i)
+            {
+                current[i] += weights[i];
+                if (current[i] > current[best])
+                    best = i;
+            }
+            current[best] -= total;
+            schedule[t] = best;
+        }
+        return schedule;
+    }
+
+    public void enqueue(TestQueue<E> Q, int lane, E value)
+    {
+        LanedPriorityTestQueue<E> q = (LanedPriorityTestQueue<E>)Q;
+        impl.enqueue(q.lanes[lane], value);
+        mark(q, lane);
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        enqueue(Q, lanes - 1, value);
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        LanedPriorityTestQueue<E> q = (LanedPriorityTestQueue<E>)Q;
+        impl.enqueueAll(q.lanes[lanes - 1], values);
+        mark(q, lanes - 1);
+    }
+
+    void mark(LanedPriorityTestQueue<E> q, int lane)
+    {
+        long bit = 1L << lane;
+        if ((q.nonEmpty & bit) == 0)
+            LanedPriorityTestQueue.NON_EMPTY.getAndBitwiseOr(q, bit);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        LanedPriorityTestQueue<E> q = (LanedPriorityTestQueue<E>)Q;
+        if (schedule != null)
+        {
+            int ticket = q.ticket;
+            q.ticket = ticket + 1;
+            int lane = schedule[Integer.remainderUnsigned(ticket, schedule.length)];
+            if ((q.nonEmpty & (1L << lane)) != 0)
+            {
+                E value = impl.dequeue(q.lanes[lane]);
+                if (value != null)
+                    return value;
+            }
+        }
+        while (true)
+        {
+            long bits = q.nonEmpty;
+            if (bits == 0)
+                return null;
+            int lane = Long.numberOfTrailingZeros(bits);
+            E value = impl.dequeue(q.lanes[lane]);
+            if (value != null)
+                return value;
+            // The lane looked empty: clear its bit, then look again in case an
+            // enqueue saw the bit still set and left it alone
+            long bit = 1L << lane;
+            LanedPriorityTestQueue.NON_EMPTY.getAndBitwiseAnd(q, ~bit);
+            value = impl.dequeue(q.lanes[lane]);
+            if (value != null)
+            {
+                mark(q, lane);
+                return value;
+            }
+        }
+    }
+
+
+
+
+    @Override
+    public String getImplName() 
+    {
+        return "LanedPriority" + impl.getImplName();
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        @SuppressWarnings("unchecked")
+        TestQueue<E>[] queues = (TestQueue<E>[])new TestQueue<?>[lanes];
+        for (int i = 0; i < lanes; ++i)
+            queues[i] = impl.newQueue();
+        return new LanedPriorityTestQueue<E>(queues);
+    }
+}
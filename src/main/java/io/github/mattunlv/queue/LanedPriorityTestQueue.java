@@ -0,0 +1,42 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * LanedPriorityTestQueue.java
+ *
+ * The queue structure used by LanedPriorityQueueImpl: one queue of the wrapped 
+ * implementation per lane, and a bitmap with bit i set while lane i may be 
+ * non-empty. ticket counts dequeues for the anti-starvation schedule. Updates 
+ * to it are racy on purpose, since it only has to spread dequeues roughly in 
+ * proportion to the weights.
+ */
+
+public class LanedPriorityTestQueue<E> extends TestQueue<E>
+{
+    public final TestQueue<E>[] lanes;
+    public volatile long nonEmpty;
+    public volatile int ticket;
+
+    public static final VarHandle NON_EMPTY;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NON_EMPTY = lookup.findVarHandle(LanedPriorityTestQueue.class, "nonEmpty", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public LanedPriorityTestQueue(TestQueue<E>[] lanes)
+    {
+        super(null, null);
+        this.lanes = lanes;
+    }
+}
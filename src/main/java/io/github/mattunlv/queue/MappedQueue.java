@@ -0,0 +1,240 @@
+package io.github.mattunlv.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+
+/**
+ * MappedQueue.java
+ * 
+ * This class implements a bounded multi-producer multi-consumer queue in shared 
+ * memory, so that processes on the same machine can exchange elements without 
+ * going through a socket. It runs the algorithm of RingBufferQueue (Vyukov's 
+ * bounded MPMC queue) over a memory-mapped file instead of Java arrays. Elements 
+ * are copied in and out as fixed-size records by a RecordCodec.
+ * 
+ * Every process that opens the same file with the same capacity and codec shares 
+ * one queue, and any of them may enqueue and dequeue. The CAS on the positions 
+ * and the release/acquire on the slot sequence numbers are ordinary atomic 
+ * instructions on the shared pages, so they order the records between processes 
+ * just as they do between threads. Nothing crosses the kernel after the file is 
+ * mapped.
+ * 
+ * enqueue waits while the ring is full and offer returns false instead, as in 
+ * RingBufferQueue. A process that dies between claiming a position and 
+ * publishing its slot leaves that slot claimed for good, and operations on it 
+ * wait forever. Recovery from that is left to the application.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element, waiting while the ring is 
+ *   full.
+ * - offer(TestQueue<E> Q, E value): Adds an element if there is room and reports 
+ *   whether it did. An element the codec rejects is rejected before a slot is 
+ *   claimed, so the queue is unchanged.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if the ring 
+ *   is empty.
+ * - size(TestQueue<E> Q), isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): As in 
+ *   RingBufferQueue.
+ * - getImplName(): Returns the name of the implementation.
+ * - open(Path file): Maps the queue in file, creating it if the file is new. 
+ *   This is how several processes share a queue.
+ * - newQueue(): Creates a queue in a new temporary file that only this process 
+ *   can reach. The file is deleted and its channel closed at once, and the 
+ *   mapping is released when the queue is garbage collected.
+ * 
+ * Dependencies:
+ * - MappedTestQueue: Represents the queue structure.
+ * - RecordCodec: Converts elements to records.
+ */
+
+public class MappedQueue<E> implements SizedQueueImpl<E>
+{
+    final RecordCodec<E> codec;
+    final int capacity;
+
+    public MappedQueue(RecordCodec<E> codec, int capacity)
+    {
+        this.codec = codec;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        while (!offer(Q, value))
+            Thread.onSpinWait();
+    }
+
+    public boolean offer(TestQueue<E> Q, E value)
+    {
+        MappedTestQueue<E> q = (MappedTestQueue<E>)Q;
+        // Reject a bad record before claiming a position: once claimed, the
+        // slot must be published or every consumer waits on it forever
+        codec.validate(value);
+        long pos = enqueuePos(q);
+        int index;
+        while (true)
+        {
+            index = (int)pos & q.mask;
+            long seq = (long)MappedTestQueue.LONGS.getAcquire(q.buffer, q.sequenceOffset(index));
+            long dif = seq - pos;
+            // slot is free for this position
+            if (dif == 0)
+            {
+                if (MappedTestQueue.LONGS.compareAndSet(q.buffer, MappedTestQueue.ENQUEUE_POS_OFFSET, pos, pos + 1))
+                    break;
+                pos = enqueuePos(q);
+            }
+            // slot still holds the element from the previous lap
+            else if (dif < 0)
+            {
+                // full only if no consumer has claimed that element yet
+                if (dequeuePos(q) + q.mask + 1 <= pos)
+                    return false;
+                Thread.onSpinWait();
+                pos = enqueuePos(q);
+            }
+            // another producer claimed this position
+            else
+                pos = enqueuePos(q);
+        }
+        codec.write(q.buffer, q.recordOffset(index), value);
+        // publish the record to the consumer of this position
+        MappedTestQueue.LONGS.setRelease(q.buffer, q.sequenceOffset(index), pos + 1);
+        return true;
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        MappedTestQueue<E> q = (MappedTestQueue<E>)Q;
+        long pos = dequeuePos(q);
+        int index;
+        while (true)
+        {
+            index = (int)pos & q.mask;
+            long seq = (long)MappedTestQueue.LONGS.getAcquire(q.buffer, q.sequenceOffset(index));
+            long dif = seq - (pos + 1);
+            // slot holds the record for this position
+            if (dif == 0)
+            {
+                if (MappedTestQueue.LONGS.compareAndSet(q.buffer, MappedTestQueue.DEQUEUE_POS_OFFSET, pos, pos + 1))
+                    break;
+                pos = dequeuePos(q);
+            }
+            // slot has not been filled yet
+            else if (dif < 0)
+            {
+                // empty only if no producer has claimed this position yet
+                if (enqueuePos(q) == pos)
+                    return null;
+                Thread.onSpinWait();
+                pos = dequeuePos(q);
+            }
+            // another consumer claimed this position
+            else
+                pos = dequeuePos(q);
+        }
+        E value = codec.read(q.buffer, q.recordOffset(index));
+        // free the slot for the producer one lap ahead
+        MappedTestQueue.LONGS.setRelease(q.buffer, q.sequenceOffset(index), pos + q.mask + 1);
+        return value;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        MappedTestQueue<E> q = (MappedTestQueue<E>)Q;
+        // Read the dequeue position first: it never passes the enqueue position
+        long dequeuePos = dequeuePos(q);
+        long enqueuePos = enqueuePos(q);
+        return Math.min(q.capacity(), enqueuePos - dequeuePos);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        MappedTestQueue<E> q = (MappedTestQueue<E>)Q;
+        long dequeuePos = dequeuePos(q);
+        return enqueuePos(q) == dequeuePos;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        MappedTestQueue<E> q = (MappedTestQueue<E>)Q;
+        while (true)
+        {
+            long pos = dequeuePos(q);
+            int index = (int)pos & q.mask;
+            long seq = (long)MappedTestQueue.LONGS.getAcquire(q.buffer, q.sequenceOffset(index));
+            long dif = seq - (pos + 1);
+            // slot holds the record for this position
+            if (dif == 0)
+            {
+                E value = codec.read(q.buffer, q.recordOffset(index));
+                // The record is copied, not referenced, so finish reading it
+                // before checking that no consumer freed the slot meanwhile
+                VarHandle.loadLoadFence();
+                if (dequeuePos(q) == pos)
+                    return value;
+            }
+            // slot has not been filled yet
+            else if (dif < 0)
+            {
+                if (enqueuePos(q) == pos)
+                    return null;
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "MappedQueue";
+    }
+
+    public MappedTestQueue<E> open(Path file) throws IOException
+    {
+        return new MappedTestQueue<E>(file, capacity, codec.size());
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        try
+        {
+            File file = File.createTempFile("mapped-queue", ".dat");
+            try
+            {
+                // The mapping stays valid after the channel is closed and the
+                // file deleted
+                MappedTestQueue<E> queue = open(file.toPath());
+                queue.close();
+                return queue;
+            }
+            finally
+            {
+                if (!file.delete())
+                    file.deleteOnExit();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long enqueuePos(MappedTestQueue<?> q)
+    {
+        return (long)MappedTestQueue.LONGS.getVolatile(q.buffer, MappedTestQueue.ENQUEUE_POS_OFFSET);
+    }
+
+    static long dequeuePos(MappedTestQueue<?> q)
+    {
+        return (long)MappedTestQueue.LONGS.getVolatile(q.buffer, MappedTestQueue.DEQUEUE_POS_OFFSET);
+    }
+}
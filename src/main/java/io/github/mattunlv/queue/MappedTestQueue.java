@@ -0,0 +1,146 @@
+package io.github.mattunlv.queue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedTestQueue.java
+ *
+ * The queue structure used by MappedQueue: a ring of fixed-size slots in a 
+ * memory-mapped file, laid out as in RingBufferTestQueue so that any process 
+ * mapping the same file sees the same queue. The file holds
+ * 
+ * - a header with a magic number, the capacity and the record size, 
+ * - the enqueue and dequeue positions, each on its own cache line, 
+ * - the slots, each an 8-byte sequence number followed by the record, padded to 
+ *   a multiple of 8 bytes.
+ * 
+ * Positions and sequence numbers are longs accessed through a byteBufferView 
+ * VarHandle, which gives the same atomic and ordered access as on a long[]. The 
+ * mapping is page-aligned and every long is at a multiple of 8, as the 
+ * VarHandle requires. The buffer is set to native byte order, so the header and 
+ * records are native too, and the file is only meant to be shared between 
+ * processes on the same machine.
+ * 
+ * The first process to open a file lays out the header and sequence numbers 
+ * while holding a lock on the file, and writes the magic number last. A file 
+ * lock is held by the whole JVM and FileChannel.lock throws if another thread 
+ * in it already holds or waits for one on the same file, so threads in one JVM 
+ * first synchronize on a monitor chosen by the file's real path. Later 
+ * processes check that the capacity and record size match. A file written with 
+ * an older layout version is rejected rather than laid out again.
+ */
+
+public class MappedTestQueue<E> extends TestQueue<E> implements Closeable
+{
+    // Marks an initialised file, with the layout version in the low byte.
+    // Version 1 stored the header and records big-endian.
+    static final long MAGIC = 0x4d51554555450002L;
+    static final long VERSION_MASK = 0xFFL;
+    static final int MAGIC_OFFSET = 0;
+    static final int CAPACITY_OFFSET = 8;
+    static final int RECORD_SIZE_OFFSET = 16;
+    public static final int ENQUEUE_POS_OFFSET = 64;
+    public static final int DEQUEUE_POS_OFFSET = 128;
+    public static final int SLOTS_OFFSET = 192;
+
+    public final MappedByteBuffer buffer;
+    public final int mask;
+    public final int stride;
+    final FileChannel channel;
+
+    // Monitors serialising the threads of this JVM that open the same file
+    static final Object[] OPEN_LOCKS = new Object[64];
+
+    static
+    {
+        for (int i = 0; i < OPEN_LOCKS.length; ++i)
+            OPEN_LOCKS[i] = new Object();
+    }
+
+    public static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    public MappedTestQueue(Path file, int capacity, int recordSize) throws IOException
+    {
+        super(null, null);
+        if (capacity < 2 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.stride = Long.BYTES + ((recordSize + 7) & ~7);
+        long length = SLOTS_OFFSET + (long)size * stride;
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Queue does not fit in one mapping: " + length + " bytes");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try
+        {
+            Object open = OPEN_LOCKS[file.toRealPath().hashCode() & (OPEN_LOCKS.length - 1)];
+            synchronized (open)
+            {
+                FileLock lock = channel.lock();
+                try
+                {
+                    long existing = channel.size();
+                    if (existing != 0 && existing != length)
+                        throw new IllegalArgumentException("File " + file + " holds a queue of a different size");
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                    buffer.order(ByteOrder.nativeOrder());
+                    long magic = (long)LONGS.getAcquire(buffer, MAGIC_OFFSET);
+                    if (magic != MAGIC && (magic & ~VERSION_MASK) == (MAGIC & ~VERSION_MASK))
+                        throw new IllegalArgumentException("File " + file + " holds a queue of layout version " + (magic & VERSION_MASK));
+                    if (magic != MAGIC)
+                    {
+                        buffer.putLong(CAPACITY_OFFSET, size);
+                        buffer.putLong(RECORD_SIZE_OFFSET, recordSize);
+                        LONGS.setVolatile(buffer, ENQUEUE_POS_OFFSET, 0L);
+                        LONGS.setVolatile(buffer, DEQUEUE_POS_OFFSET, 0L);
+                        for (int i = 0; i < size; ++i)
+                            LONGS.set(buffer, sequenceOffset(i), (long)i);
+                        LONGS.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+                    }
+                    else if (buffer.getLong(CAPACITY_OFFSET) != size || buffer.getLong(RECORD_SIZE_OFFSET) != recordSize)
+                        throw new IllegalArgumentException("File " + file + " holds a queue with a different capacity or record size");
+                }
+                finally
+                {
+                    lock.release();
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int capacity()
+    {
+        return mask + 1;
+    }
+
+    public int sequenceOffset(int index)
+    {
+        return SLOTS_OFFSET + index * stride;
+    }
+
+    public int recordOffset(int index)
+    {
+        return SLOTS_OFFSET + index * stride + Long.BYTES;
+    }
+
+    // The mapping itself stays valid until the buffer is garbage collected
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
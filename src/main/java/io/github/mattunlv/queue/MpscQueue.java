@@ -0,0 +1,112 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+
+/**
+ * MpscQueue.java
+ * 
+ * This class implements an unbounded multi-producer single-consumer queue over 
+ * VarHandleNode<E> and VarHandleTestQueue, after Vyukov's intrusive MPSC queue. 
+ * A producer swaps itself in as the tail with one getAndSet, which cannot fail, 
+ * and then links the previous tail to its node with a release store. The head is 
+ * owned by the single consumer, which reads and writes it with plain accesses 
+ * and needs no CAS.
+ * 
+ * Between a producer's getAndSet and its link, the node is in the queue but not 
+ * yet reachable from the head. The enqueue is linearized at the getAndSet, so 
+ * dequeue only returns null when the tail is still the head, and otherwise waits 
+ * for the link. This is the one place the queue is not lock-free. Use 
+ * Topology.MPSC.create() to obtain one.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue. Safe from 
+ *   any number of producers.
+ * - enqueueAll(TestQueue<E> Q, Collection<? extends E> values): Links a privately 
+ *   built chain with a single getAndSet.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if the queue 
+ *   is empty. Must only be called by the consumer.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the VarHandleTestQueue this implementation operates on.
+ * 
+ * Dependencies:
+ * - VarHandleTestQueue: Represents the queue structure.
+ * - VarHandleNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class MpscQueue<E> implements QueueImpl<E>
+{
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // node = new node
+        VarHandleNode<E> node = new VarHandleNode<E>(value);
+        // prev = XCHG(&Q->tail, node)
+        VarHandleNode<E> prev = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAndSet(q, node);
+        // prev->next = node
+        VarHandleNode.NEXT.setRelease(prev, node);
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        VarHandleNode<E> first = null;
+        VarHandleNode<E> last = null;
+        // Build the chain privately: plain writes, published by the link below
+        for (E value : values)
+        {
+            VarHandleNode<E> node = new VarHandleNode<E>(value);
+            if (first == null)
+                first = node;
+            else
+                VarHandleNode.NEXT.set(last, node);
+            last = node;
+        }
+        if (first == null)
+            return;
+        // prev = XCHG(&Q->tail, last)
+        VarHandleNode<E> prev = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAndSet(q, last);
+        // prev->next = first
+        VarHandleNode.NEXT.setRelease(prev, first);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // head = Q->head (owned by the consumer)
+        VarHandleNode<E> head = (VarHandleNode<E>)VarHandleTestQueue.HEAD.get(q);
+        // next = head->next
+        VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head);
+        if (next == null)
+        {
+            // empty only if no producer has swapped in a new tail
+            if (q.tailNode == head)
+                return null;
+            // a producer is between its XCHG and its link, wait for it
+            while ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head)) == null)
+                Thread.onSpinWait();
+        }
+        // value = next->value
+        E value = (E)VarHandleNode.VALUE.get(next);
+        // next becomes the dummy node, drop its value
+        VarHandleNode.VALUE.set(next, null);
+        // Q->head = next
+        VarHandleTestQueue.HEAD.set(q, next);
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "MpscQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new VarHandleTestQueue<E>();
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Node<E>
+{
+    public AtomicReference<E> value = new AtomicReference<E>(null);
+    public AtomicReference<Node<E>> next = new AtomicReference<Node<E>>(null);
+    // Position of the node in the queue (the initial dummy is 0). Set by the
+    // algorithms that support size() before the CAS that links the node, which
+    // publishes it, and never changed afterwards.
+    public long seq;
+}
\ No newline at end of file
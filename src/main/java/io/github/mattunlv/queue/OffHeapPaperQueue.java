@@ -0,0 +1,132 @@
+package io.github.mattunlv.queue;
+
+/**
+ * OffHeapPaperQueue.java
+ * 
+ * This class implements the Michael and Scott queue as it appears in the paper, 
+ * with its nodes stored outside the Java heap. It is PooledPaperQueue with the 
+ * arena moved into direct memory (see OffHeapTestQueue), so a long backlog adds 
+ * nothing for the garbage collector to trace. Elements are copied into the 
+ * nodes as fixed-size records by a RecordCodec, and dequeue returns a new copy.
+ * 
+ * Counted pointers make node reuse safe, as in PooledPaperQueue. As there, 
+ * dequeue reads the record before its CAS on the head, so the read can race with 
+ * the node being freed and reused. The CAS then fails and the value is thrown 
+ * away, but the codec must cope with reading a record that is being overwritten. 
+ * The codecs in RecordCodec do.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates an OffHeapTestQueue sized for the codec's records.
+ * 
+ * Dependencies:
+ * - OffHeapTestQueue: Represents the queue structure and its node arena.
+ * - RecordCodec: Converts elements to records.
+ */
+
+public class OffHeapPaperQueue<E> implements QueueImpl<E>
+{
+    final RecordCodec<E> codec;
+
+    public OffHeapPaperQueue(RecordCodec<E> codec)
+    {
+        this.codec = codec;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        OffHeapTestQueue<E> q = (OffHeapTestQueue<E>)Q;
+        // node = new_node()
+        int node = q.allocate();
+        // node->value = value, published by the CAS that links the node
+        codec.write(q.chunk(node), q.recordOffset(node), value);
+        // node->next.ptr = null
+        q.setNext(node, ArenaTestQueue.NULL);
+        long tail;
+        long next;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = q.tail;
+            // next = tail.ptr->next
+            next = q.next(ArenaTestQueue.ptr(tail));
+            // if tail == Q->tail
+            if (tail == q.tail)
+            {
+                // if next.ptr == null
+                if (ArenaTestQueue.ptr(next) == ArenaTestQueue.NULL)
+                {
+                    // if CAS(&tail.ptr->next, next, <node, next.count + 1>)
+                    if (q.casNext(ArenaTestQueue.ptr(tail), next, ArenaTestQueue.pack(node, ArenaTestQueue.count(next) + 1)))
+                        break;
+                }
+                else
+                {
+                    // CAS(&Q->tail, tail, <next.ptr, tail.count + 1>)
+                    OffHeapTestQueue.TAIL.compareAndSet(q, tail, ArenaTestQueue.pack(ArenaTestQueue.ptr(next), ArenaTestQueue.count(tail) + 1));
+                }
+            }
+        }
+        // CAS(&Q->tail, tail, <node, tail.count + 1>)
+        OffHeapTestQueue.TAIL.compareAndSet(q, tail, ArenaTestQueue.pack(node, ArenaTestQueue.count(tail) + 1));
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        OffHeapTestQueue<E> q = (OffHeapTestQueue<E>)Q;
+        E value;
+        long head;
+        while (true)
+        {
+            // head = Q->head
+            head = q.head;
+            // tail = Q->tail
+            long tail = q.tail;
+            // next = head.ptr->next
+            long next = q.next(ArenaTestQueue.ptr(head));
+            // if head == Q->head
+            if (head == q.head)
+            {
+                // if head.ptr == tail.ptr
+                if (ArenaTestQueue.ptr(head) == ArenaTestQueue.ptr(tail))
+                {
+                    // if next.ptr == null
+                    if (ArenaTestQueue.ptr(next) == ArenaTestQueue.NULL)
+                        return null;
+                    // CAS(&Q->tail, tail, <next.ptr, tail.count + 1>)
+                    OffHeapTestQueue.TAIL.compareAndSet(q, tail, ArenaTestQueue.pack(ArenaTestQueue.ptr(next), ArenaTestQueue.count(tail) + 1));
+                }
+                else
+                {
+                    // pvalue = next.ptr->value, read before the CAS as the node may be freed after it
+                    int node = ArenaTestQueue.ptr(next);
+                    value = codec.read(q.chunk(node), q.recordOffset(node));
+                    // if CAS(&Q->head, head, <next.ptr, head.count + 1>)
+                    if (OffHeapTestQueue.HEAD.compareAndSet(q, head, ArenaTestQueue.pack(ArenaTestQueue.ptr(next), ArenaTestQueue.count(head) + 1)))
+                        break;
+                }
+            }
+        }
+        // free(head.ptr)
+        q.release(ArenaTestQueue.ptr(head));
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "OffHeapPaperQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new OffHeapTestQueue<E>(codec.size());
+    }
+}
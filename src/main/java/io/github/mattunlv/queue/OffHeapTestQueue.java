@@ -0,0 +1,100 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * OffHeapTestQueue.java
+ *
+ * The queue structure used by OffHeapPaperQueue: the node arena and counted 
+ * pointers of ArenaTestQueue, with the nodes stored outside the Java heap. Each 
+ * chunk of CHUNK_SIZE nodes is one direct ByteBuffer, and a node is a 
+ * fixed-size slot in it:
+ * 
+ * - the counted next pointer (8 bytes), 
+ * - the free list link (8 bytes, of which the low 4 are used), 
+ * - the element as a record of recordSize bytes, padded to a multiple of 8.
+ * 
+ * The collector only sees one ByteBuffer per chunk, however many elements the 
+ * queue holds. Pointers are read and CASed through a byteBufferView VarHandle. 
+ * The chunks are 8-byte aligned, so every pointer is at an aligned address as 
+ * atomic access requires. As in every ArenaTestQueue, nodes are recycled but 
+ * chunks are not, since a stale index must stay readable. The memory of the 
+ * chunks is returned when the queue itself is collected. A record holds no 
+ * references, so a released node's record is left as it is.
+ */
+
+public class OffHeapTestQueue<E> extends ArenaTestQueue<E>
+{
+    static final int NEXT_OFFSET = 0;
+    static final int FREE_NEXT_OFFSET = 8;
+    static final int RECORD_OFFSET = 16;
+
+    final ByteBuffer[] chunks = new ByteBuffer[MAX_CHUNKS];
+    final int stride;
+
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    public OffHeapTestQueue(int recordSize)
+    {
+        this.stride = RECORD_OFFSET + ((recordSize + 7) & ~7);
+        if ((long)CHUNK_SIZE * stride > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Record size too large for a chunk: " + recordSize);
+        // node = new node
+        int node = allocate();
+        // node->next.ptr = null
+        setNext(node, NULL);
+        // Q->head = Q->tail = node
+        head = pack(node, 0);
+        tail = pack(node, 0);
+    }
+
+    public ByteBuffer chunk(int node)
+    {
+        return chunks[node >>> CHUNK_SHIFT];
+    }
+
+    public int recordOffset(int node)
+    {
+        return (node & CHUNK_MASK) * stride + RECORD_OFFSET;
+    }
+
+    public long next(int node)
+    {
+        return (long)LONGS.getVolatile(chunk(node), (node & CHUNK_MASK) * stride + NEXT_OFFSET);
+    }
+
+    // node->next.ptr = ptr, keeping the count so stale CASes still fail
+    public void setNext(int node, int ptr)
+    {
+        ByteBuffer chunk = chunk(node);
+        int offset = (node & CHUNK_MASK) * stride + NEXT_OFFSET;
+        long old = (long)LONGS.getVolatile(chunk, offset);
+        LONGS.setRelease(chunk, offset, pack(ptr, count(old)));
+    }
+
+    public boolean casNext(int node, long expected, long update)
+    {
+        return LONGS.compareAndSet(chunk(node), (node & CHUNK_MASK) * stride + NEXT_OFFSET, expected, update);
+    }
+
+    @Override
+    void newChunk(int chunk)
+    {
+        chunks[chunk] = ByteBuffer.allocateDirect(CHUNK_SIZE * stride + 7).alignedSlice(8).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    int freeNext(int node)
+    {
+        return (int)(long)LONGS.getAcquire(chunk(node), (node & CHUNK_MASK) * stride + FREE_NEXT_OFFSET);
+    }
+
+    @Override
+    void setFreeNext(int node, int rest)
+    {
+        LONGS.setRelease(chunk(node), (node & CHUNK_MASK) * stride + FREE_NEXT_OFFSET, (long)rest);
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PaddedAtomicReference.java
+ *
+ * An AtomicReference followed by 120 bytes of padding. HotSpot lays out subclass 
+ * fields after those of the superclass, so the padding keeps the value of a 
+ * PaddedAtomicReference on a different cache line from the next object allocated 
+ * after it. The padding fields are never read.
+ */
+
+@SuppressWarnings("unused")
+public class PaddedAtomicReference<V> extends AtomicReference<V>
+{
+    private static final long serialVersionUID = 1L;
+
+    private long p01, p02, p03, p04, p05, p06, p07, p08;
+    private long p09, p10, p11, p12, p13, p14, p15;
+
+    public PaddedAtomicReference()
+    {
+    }
+}
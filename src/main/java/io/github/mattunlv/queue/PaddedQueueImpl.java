@@ -0,0 +1,77 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+
+/**
+ * PaddedQueueImpl.java
+ * 
+ * This class runs any of the implementations that work on TestQueue's head and 
+ * tail (the Structured and CSPFriendly paper and JDK queues) over a 
+ * PaddedTestQueue. Every call is passed straight to the wrapped implementation 
+ * with the same queue, so the only difference is the layout of the head and 
+ * tail references. SizedPaddedQueueImpl adds size, isEmpty and peek when the 
+ * wrapped implementation has them.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element using the wrapped 
+ *   implementation.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element using the wrapped 
+ *   implementation.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates a PaddedTestQueue.
+ * 
+ * Dependencies:
+ * - PaddedTestQueue: Represents the queue structure.
+ * - QueueImpl: The wrapped implementation.
+ */
+
+public class PaddedQueueImpl<E> implements QueueImpl<E>
+{
+    final QueueImpl<E> impl;
+
+    public PaddedQueueImpl(QueueImpl<E> impl)
+    {
+        if (impl.newQueue().getClass() != TestQueue.class)
+            throw new IllegalArgumentException(impl.getImplName() + " does not use the TestQueue head and tail");
+        this.impl = impl;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        impl.enqueue(Q, value);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        return impl.dequeue(Q);
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        impl.enqueueAll(Q, values);
+    }
+
+    @Override
+    public int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        return impl.drainTo(Q, sink, max);
+    }
+
+
+
+
+    @Override
+    public String getImplName() 
+    {
+        return "Padded" + impl.getImplName();
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new PaddedTestQueue<E>();
+    }
+}
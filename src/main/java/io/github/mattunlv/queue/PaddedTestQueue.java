@@ -0,0 +1,23 @@
+package io.github.mattunlv.queue;
+
+/**
+ * PaddedTestQueue.java
+ *
+ * A TestQueue whose head and tail are PaddedAtomicReferences. The two references 
+ * are allocated back-to-back, so without padding their values usually share a 
+ * cache line, and a consumer CASing the head invalidates the line a producer is 
+ * CASing the tail on. The padding puts them on separate lines.
+ *
+ * @Contended does the same job without manual padding. It needs 
+ * --add-exports java.base/jdk.internal.vm.annotation=ALL-UNNAMED at compile time 
+ * and -XX:-RestrictContended at run time, because outside the JDK the annotation 
+ * is ignored without that flag. Manual padding needs neither flag.
+ */
+
+public class PaddedTestQueue<E> extends TestQueue<E>
+{
+    public PaddedTestQueue()
+    {
+        super(new PaddedAtomicReference<Node<E>>(), new PaddedAtomicReference<Node<E>>());
+    }
+}
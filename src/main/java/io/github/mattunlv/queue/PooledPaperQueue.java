@@ -0,0 +1,126 @@
+package io.github.mattunlv.queue;
+
+/**
+ * PooledPaperQueue.java
+ * 
+ * This class implements the Michael and Scott queue as it appears in the paper, 
+ * with counted pointers and a free list, so that nodes are recycled instead of 
+ * being allocated on every enqueue and left for the garbage collector on every 
+ * dequeue. Once the arena has grown to the queue's working size the enqueue and 
+ * dequeue paths do not allocate.
+ * 
+ * The counted pointers make reuse safe: every CAS compares the modification 
+ * count as well as the node, so a delayed thread cannot succeed against a node 
+ * that has been freed and reused since it read the pointer (see 
+ * PooledTestQueue). The head is only freed once the tail has moved past it, as 
+ * in the paper. The JDK algorithm is not pooled: its self-linked nodes are 
+ * followed by delayed threads after they leave the queue, which is only safe 
+ * while the garbage collector keeps them from being reused.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates a PooledTestQueue.
+ * 
+ * Dependencies:
+ * - PooledTestQueue: Represents the queue structure and its node pool.
+ */
+
+@SuppressWarnings("unchecked")
+public class PooledPaperQueue<E> implements QueueImpl<E>
+{
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        PooledTestQueue<E> q = (PooledTestQueue<E>)Q;
+        // node = new_node()
+        int node = q.allocate();
+        // node->value = value
+        q.setValue(node, value);
+        // node->next.ptr = null
+        q.setNext(node, PooledTestQueue.NULL);
+        long tail;
+        long next;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = q.tail;
+            // next = tail.ptr->next
+            next = q.next(PooledTestQueue.ptr(tail));
+            // if tail == Q->tail
+            if (tail == q.tail)
+            {
+                // if next.ptr == null
+                if (PooledTestQueue.ptr(next) == PooledTestQueue.NULL)
+                {
+                    // if CAS(&tail.ptr->next, next, <node, next.count + 1>)
+                    if (q.casNext(PooledTestQueue.ptr(tail), next, PooledTestQueue.pack(node, PooledTestQueue.count(next) + 1)))
+                        break;
+                }
+                else
+                {
+                    // CAS(&Q->tail, tail, <next.ptr, tail.count + 1>)
+                    PooledTestQueue.TAIL.compareAndSet(q, tail, PooledTestQueue.pack(PooledTestQueue.ptr(next), PooledTestQueue.count(tail) + 1));
+                }
+            }
+        }
+        // CAS(&Q->tail, tail, <node, tail.count + 1>)
+        PooledTestQueue.TAIL.compareAndSet(q, tail, PooledTestQueue.pack(node, PooledTestQueue.count(tail) + 1));
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        PooledTestQueue<E> q = (PooledTestQueue<E>)Q;
+        E value;
+        long head;
+        while (true)
+        {
+            // head = Q->head
+            head = q.head;
+            // tail = Q->tail
+            long tail = q.tail;
+            // next = head.ptr->next
+            long next = q.next(PooledTestQueue.ptr(head));
+            // if head == Q->head
+            if (head == q.head)
+            {
+                // if head.ptr == tail.ptr
+                if (PooledTestQueue.ptr(head) == PooledTestQueue.ptr(tail))
+                {
+                    // if next.ptr == null
+                    if (PooledTestQueue.ptr(next) == PooledTestQueue.NULL)
+                        return null;
+                    // CAS(&Q->tail, tail, <next.ptr, tail.count + 1>)
+                    PooledTestQueue.TAIL.compareAndSet(q, tail, PooledTestQueue.pack(PooledTestQueue.ptr(next), PooledTestQueue.count(tail) + 1));
+                }
+                else
+                {
+                    // pvalue = next.ptr->value, read before the CAS as the node may be freed after it
+                    value = (E)q.value(PooledTestQueue.ptr(next));
+                    // if CAS(&Q->head, head, <next.ptr, head.count + 1>)
+                    if (PooledTestQueue.HEAD.compareAndSet(q, head, PooledTestQueue.pack(PooledTestQueue.ptr(next), PooledTestQueue.count(head) + 1)))
+                        break;
+                }
+            }
+        }
+        // free(head.ptr)
+        q.release(PooledTestQueue.ptr(head));
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "PooledPaperQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new PooledTestQueue<E>();
+    }
+}
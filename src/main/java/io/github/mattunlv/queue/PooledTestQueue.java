@@ -0,0 +1,93 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * PooledTestQueue.java
+ *
+ * The queue structure used by PooledPaperQueue: the node arena and counted 
+ * pointers of ArenaTestQueue, with each chunk stored as three parallel arrays 
+ * on the Java heap (the elements, the counted next pointers and the free list 
+ * links).
+ */
+
+public class PooledTestQueue<E> extends ArenaTestQueue<E>
+{
+    final Object[][] values = new Object[MAX_CHUNKS][];
+    final long[][] next = new long[MAX_CHUNKS][];
+    final int[][] freeNext = new int[MAX_CHUNKS][];
+
+    static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(long[].class);
+    static final VarHandle FREE_NEXT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    public PooledTestQueue()
+    {
+        // node = new node
+        int node = allocate();
+        // node->next.ptr = null
+        setNext(node, NULL);
+        // Q->head = Q->tail = node
+        head = pack(node, 0);
+        tail = pack(node, 0);
+    }
+
+    public Object value(int node)
+    {
+        return VALUES.get(values[node >>> CHUNK_SHIFT], node & CHUNK_MASK);
+    }
+
+    // Plain write, published by the CAS that links the node
+    public void setValue(int node, Object value)
+    {
+        VALUES.set(values[node >>> CHUNK_SHIFT], node & CHUNK_MASK, value);
+    }
+
+    public long next(int node)
+    {
+        return (long)NEXT.getVolatile(next[node >>> CHUNK_SHIFT], node & CHUNK_MASK);
+    }
+
+    // node->next.ptr = ptr, keeping the count so stale CASes still fail
+    public void setNext(int node, int ptr)
+    {
+        long[] chunk = next[node >>> CHUNK_SHIFT];
+        int i = node & CHUNK_MASK;
+        long old = (long)NEXT.getVolatile(chunk, i);
+        NEXT.setRelease(chunk, i, pack(ptr, count(old)));
+    }
+
+    public boolean casNext(int node, long expected, long update)
+    {
+        return NEXT.compareAndSet(next[node >>> CHUNK_SHIFT], node & CHUNK_MASK, expected, update);
+    }
+
+    @Override
+    public void release(int node)
+    {
+        // Drop the element so the pool does not keep it alive
+        setValue(node, null);
+        super.release(node);
+    }
+
+    @Override
+    void newChunk(int chunk)
+    {
+        values[chunk] = new Object[CHUNK_SIZE];
+        next[chunk] = new long[CHUNK_SIZE];
+        freeNext[chunk] = new int[CHUNK_SIZE];
+    }
+
+    @Override
+    int freeNext(int node)
+    {
+        return (int)FREE_NEXT.getAcquire(freeNext[node >>> CHUNK_SHIFT], node & CHUNK_MASK);
+    }
+
+    @Override
+    void setFreeNext(int node, int rest)
+    {
+        FREE_NEXT.setRelease(freeNext[node >>> CHUNK_SHIFT], node & CHUNK_MASK, rest);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+
+public interface QueueImpl<E> 
+{
+    public void enqueue(TestQueue<E> Q, E value);
+
+    public E dequeue(TestQueue<E> Q);
+
+    public String getImplName();
+
+    // Creates an empty queue for this implementation to operate on. Variants
+    // that need a different queue structure return a subclass of TestQueue,
+    // and only accept queues created by their own newQueue().
+    public default TestQueue<E> newQueue()
+    {
+        return new TestQueue<E>();
+    }
+
+    // Adds every value, in iteration order. Implementations may link the whole
+    // batch into the queue at once rather than one element at a time.
+    public default void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        for (E value : values)
+            enqueue(Q, value);
+    }
+
+    // Removes up to max elements into sink, in queue order, and returns how many
+    // were removed. Implementations may advance the head once for the batch.
+    public default int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        int count = 0;
+        E value;
+        while (count < max && (value = dequeue(Q)) != null)
+        {
+            sink.add(value);
+            ++count;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueueMetrics.java
+ *
+ * Contention counters for one queue implementation: attempts and failures for 
+ * each CAS site, plus counts of the events that show a queue under contention 
+ * (stale snapshots, lagging-tail fix-ups, head restarts and the number of nodes 
+ * walked). The counters are LongAdders, so threads updating them do not contend 
+ * with each other.
+ *
+ * Metrics are off unless the JVM is started with 
+ * -Dio.github.mattunlv.queue.metrics=true. ENABLED is a static final constant, 
+ * so when it is false the JIT folds every recording method down to nothing (cas 
+ * returns its argument) and the hot path is the same as without metrics.
+ *
+ * Key Methods:
+ * - cas(Site site, boolean success): Records a CAS at a site and returns its 
+ *   result, so it can wrap the CAS in a condition.
+ * - record(Event event): Counts one occurrence of an event.
+ * - add(Event event, long n): Counts n occurrences of an event.
+ * - snapshot(): Returns the current value of every counter.
+ * - reset(): Sets every counter back to zero.
+ */
+
+public class QueueMetrics
+{
+    public static final boolean ENABLED = Boolean.getBoolean("io.github.mattunlv.queue.metrics");
+
+    public enum Site
+    {
+        // CAS linking a new node after the last node
+        LINK,
+        // CAS moving Q->tail
+        TAIL,
+        // CAS moving Q->head
+        HEAD,
+        // CAS claiming a node's value (JDK algorithm)
+        ITEM
+    }
+
+    public enum Event
+    {
+        ENQUEUES,
+        DEQUEUES,
+        EMPTY_DEQUEUES,
+        // Nodes stepped over while looking for the last node or the first item
+        NODES_TRAVERSED,
+        // Attempts to move a tail that has fallen behind the last node
+        LAGGING_TAIL_FIXUPS,
+        // Restarts from the head after reaching a self-linked node
+        HEAD_RESTARTS,
+        // Loop iterations discarded because the head or tail changed while read
+        STALE_SNAPSHOTS
+    }
+
+    public static class Snapshot
+    {
+        final long[] attempts;
+        final long[] failures;
+        final long[] events;
+
+        Snapshot(long[] attempts, long[] failures, long[] events)
+        {
+            this.attempts = attempts;
+            this.failures = failures;
+            this.events = events;
+        }
+
+        public long attempts(Site site)
+        {
+            return attempts[site.ordinal()];
+        }
+
+        public long failures(Site site)
+        {
+            return failures[site.ordinal()];
+        }
+
+        public long count(Event event)
+        {
+            return events[event.ordinal()];
+        }
+
+        public String toString()
+        {
+            StringBuilder builder = new StringBuilder();
+            for (Site site : Site.values())
+                builder.append(site).append(" CAS ").append(failures(site)).append('/').append(attempts(site)).append(" failed, ");
+            for (Event event : Event.values())
+                builder.append(event).append(' ').append(count(event)).append(", ");
+            builder.setLength(builder.length() - 2);
+            return builder.toString();
+        }
+    }
+
+    final LongAdder[] attempts;
+    final LongAdder[] failures;
+    final LongAdder[] events;
+
+    public QueueMetrics()
+    {
+        // Disabled metrics never touch their counters, so do not create them
+        int sites = ENABLED ? Site.values().length : 0;
+        int kinds = ENABLED ? Event.values().length : 0;
+        attempts = new LongAdder[sites];
+        failures = new LongAdder[sites];
+        events = new LongAdder[kinds];
+        for (int i = 0; i < sites; ++i)
+        {
+            attempts[i] = new LongAdder();
+            failures[i] = new LongAdder();
+        }
+        for (int i = 0; i < kinds; ++i)
+            events[i] = new LongAdder();
+    }
+
+    public boolean cas(Site site, boolean success)
+    {
+        if (ENABLED)
+        {
+            attempts[site.ordinal()].increment();
+            if (!success)
+                failures[site.ordinal()].increment();
+        }
+        return success;
+    }
+
+    public void record(Event event)
+    {
+        if (ENABLED)
+            events[event.ordinal()].increment();
+    }
+
+    public void add(Event event, long n)
+    {
+        if (ENABLED && n != 0)
+            events[event.ordinal()].add(n);
+    }
+
+    // Each counter is read separately, so a snapshot taken under load is not atomic
+    public Snapshot snapshot()
+    {
+        long[] a = new long[Site.values().length];
+        long[] f = new long[Site.values().length];
+        long[] e = new long[Event.values().length];
+        if (ENABLED)
+        {
+            for (int i = 0; i < a.length; ++i)
+            {
+                a[i] = attempts[i].sum();
+                f[i] = failures[i].sum();
+            }
+            for (int i = 0; i < e.length; ++i)
+                e[i] = events[i].sum();
+        }
+        return new Snapshot(a, f, e);
+    }
+
+    public void reset()
+    {
+        for (LongAdder adder : attempts)
+            adder.reset();
+        for (LongAdder adder : failures)
+            adder.reset();
+        for (LongAdder adder : events)
+            adder.reset();
+    }
+}
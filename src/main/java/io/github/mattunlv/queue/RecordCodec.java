@@ -0,0 +1,133 @@
+package io.github.mattunlv.queue;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * RecordCodec.java
+ *
+ * Converts elements to and from the fixed-size binary records stored by 
+ * MappedQueue. Every record has the same size, so a slot in the mapped file can 
+ * hold any element. Codecs are shared between threads and must be thread-safe.
+ *
+ * Key Methods:
+ * - size(): Returns the size of a record in bytes.
+ * - validate(E value): Throws if an element cannot be written as a record. 
+ *   MappedQueue calls it before claiming a slot, since a slot claimed by a write 
+ *   that then fails would never be published.
+ * - write(ByteBuffer buffer, int offset, E value): Writes an element as the 
+ *   record at offset.
+ * - read(ByteBuffer buffer, int offset): Reads the record at offset back into an 
+ *   element.
+ * - int32(), int64(): Codecs for Integer and Long in the buffer's byte order. 
+ *   MappedTestQueue and OffHeapTestQueue set their buffers to native order.
+ * - bytes(int size): A codec for byte arrays of exactly size bytes.
+ */
+
+public interface RecordCodec<E>
+{
+    public int size();
+
+    // Throws if value cannot be written. write must not throw for a value that
+    // passes.
+    public default void validate(E value)
+    {
+        Objects.requireNonNull(value, "Records cannot be null");
+    }
+
+    public void write(ByteBuffer buffer, int offset, E value);
+
+    public E read(ByteBuffer buffer, int offset);
+
+    public static RecordCodec<Integer> int32()
+    {
+        return Int32.INSTANCE;
+    }
+
+    public static RecordCodec<Long> int64()
+    {
+        return Int64.INSTANCE;
+    }
+
+    public static RecordCodec<byte[]> bytes(int size)
+    {
+        return new Bytes(size);
+    }
+
+    final class Int32 implements RecordCodec<Integer>
+    {
+        static final Int32 INSTANCE = new Int32();
+
+        public int size()
+        {
+            return Integer.BYTES;
+        }
+
+        public void write(ByteBuffer buffer, int offset, Integer value)
+        {
+            buffer.putInt(offset, value);
+        }
+
+        public Integer read(ByteBuffer buffer, int offset)
+        {
+            return buffer.getInt(offset);
+        }
+    }
+
+    final class Int64 implements RecordCodec<Long>
+    {
+        static final Int64 INSTANCE = new Int64();
+
+        public int size()
+        {
+            return Long.BYTES;
+        }
+
+        public void write(ByteBuffer buffer, int offset, Long value)
+        {
+            buffer.putLong(offset, value);
+        }
+
+        public Long read(ByteBuffer buffer, int offset)
+        {
+            return buffer.getLong(offset);
+        }
+    }
+
+    final class Bytes implements RecordCodec<byte[]>
+    {
+        final int size;
+
+        Bytes(int size)
+        {
+            if (size < 1)
+                throw new IllegalArgumentException("Record size must be at least 1: " + size);
+            this.size = size;
+        }
+
+        public int size()
+        {
+            return size;
+        }
+
+        public void validate(byte[] value)
+        {
+            Objects.requireNonNull(value, "Records cannot be null");
+            if (value.length != size)
+                throw new IllegalArgumentException("Record must be " + size + " bytes: " + value.length);
+        }
+
+        public void write(ByteBuffer buffer, int offset, byte[] value)
+        {
+            validate(value);
+            buffer.put(offset, value);
+        }
+
+        public byte[] read(ByteBuffer buffer, int offset)
+        {
+            byte[] value = new byte[size];
+            buffer.get(offset, value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.mattunlv.queue;
+
+/**
+ * RelaxedJDKQueue.java
+ * 
+ * This class implements the ConcurrentLinkedQueue-style algorithm of 
+ * StructuredJDKQueue with the weakest memory ordering that keeps it correct at 
+ * each access, over the same VarHandleNode and VarHandleTestQueue as 
+ * VarHandleJDKQueue.
+ * 
+ * Memory ordering:
+ * - The new node is initialised with plain writes.
+ * - The CAS that links it (pointer->next) is a weak CAS with release semantics. 
+ *   A spurious failure re-reads next, finds it still null and tries again.
+ * - Q->head, Q->tail, next and item values are read with getAcquire.
+ * - An item is claimed with a strong CAS with acquire semantics. It must be 
+ *   strong: after a spurious failure the loop would move past a node whose item 
+ *   is still there, and a later updateHead could drop it from the queue.
+ * - Q->tail and Q->head are moved with a weak CAS with release semantics. Both 
+ *   are only hints that are allowed to lag, so a spurious failure is harmless.
+ * - The self-link written to a node removed by updateHead uses setRelease, as in 
+ *   VarHandleJDKQueue.
+ * 
+ * The CSP model in PaperCSPFiles/queue-java.csp assumes sequentially consistent 
+ * memory, so it checks the same steps but not these orderings. They are checked 
+ * by the jcstress tests in QueueStressTests on hardware with a weak memory model.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the VarHandleTestQueue this implementation operates on.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the first unclaimed node and the last node.
+ * - peek(TestQueue<E> Q): Returns the first unclaimed element without removing 
+ *   it. isEmpty is peek(Q) == null.
+ * - updateHead(VarHandleTestQueue<E> Q, VarHandleNode<E> head, VarHandleNode<E> pointer): 
+ *   Updates the head of the queue to maintain consistency during dequeue 
+ *   operations.
+ * 
+ * Dependencies:
+ * - VarHandleTestQueue: Represents the queue structure.
+ * - VarHandleNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class RelaxedJDKQueue<E> implements SizedQueueImpl<E>
+{
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value) 
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        VarHandleNode<E> node = new VarHandleNode<E>(value);
+        VarHandleNode<E> tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q);
+        VarHandleNode<E> pointer = tail;
+        while (true)
+        {
+            VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer);
+            if (next == null)
+            {
+                node.seq = pointer.seq + 1;
+                if (VarHandleNode.NEXT.weakCompareAndSetRelease(pointer, null, node))
+                {
+                    if (pointer != tail)
+                        VarHandleTestQueue.TAIL.weakCompareAndSetRelease(q, tail, node);
+                    return;
+                }
+            }
+            else if (pointer == next)
+                pointer = (tail != (tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q))) ? tail : (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q);
+            else
+                pointer = (pointer != tail && tail != (tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q))) ? tail : next;
+        }
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q) 
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        restartFromHead: while (true)
+        {
+            for (VarHandleNode<E> head = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q), pointer = head, next;; pointer = next)
+            {
+                E item;
+                if ((item = (E)VarHandleNode.VALUE.getAcquire(pointer)) != null && VarHandleNode.VALUE.compareAndExchangeAcquire(pointer, item, null) == item)
+                {
+                    if (pointer != head)
+                        updateHead(q, head, ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) != null) ? next : pointer);
+                    return item;
+                }
+                else if ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) == null)
+                {
+                    updateHead(q, head, pointer);
+                    return null;
+                }
+                else if (pointer == next)
+                {
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "RelaxedJDKQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new VarHandleTestQueue<E>();
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        restartFromHead: while (true)
+        {
+            // Skip the claimed nodes that updateHead has not passed yet. Elements
+            // are claimed in list order, so every node from the first unclaimed
+            // one to the last holds an element.
+            for (VarHandleNode<E> pointer = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q), next;; pointer = next)
+            {
+                if (VarHandleNode.VALUE.getAcquire(pointer) != null)
+                    return Math.max(0, last(q, pointer).seq - pointer.seq + 1);
+                else if ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) == null)
+                    return 0;
+                else if (pointer == next)
+                    continue restartFromHead;
+            }
+        }
+    }
+
+    // Follows next pointers from the tail to the last node. The tail may be
+    // behind first, or on a removed node, so fall back to first or the head then.
+    VarHandleNode<E> last(VarHandleTestQueue<E> q, VarHandleNode<E> first)
+    {
+        VarHandleNode<E> pointer = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q);
+        if (pointer.seq < first.seq)
+            pointer = first;
+        for (VarHandleNode<E> next; (next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) != null; pointer = next)
+        {
+            if (pointer == next)
+            {
+                next = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q);
+                if (next == pointer)
+                    return pointer;
+            }
+        }
+        return pointer;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        restartFromHead: while (true)
+        {
+            for (VarHandleNode<E> pointer = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q), next;; pointer = next)
+            {
+                E item;
+                if ((item = (E)VarHandleNode.VALUE.getAcquire(pointer)) != null)
+                    return item;
+                else if ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) == null)
+                    return null;
+                else if (pointer == next)
+                    continue restartFromHead;
+            }
+        }
+    }
+
+    void updateHead(VarHandleTestQueue<E> Q, VarHandleNode<E> head, VarHandleNode<E> pointer)
+    {
+        if (head != pointer && VarHandleTestQueue.HEAD.weakCompareAndSetRelease(Q, head, pointer))
+            VarHandleNode.NEXT.setRelease(head, head);
+    }
+}
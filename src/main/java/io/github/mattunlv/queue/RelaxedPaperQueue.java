@@ -0,0 +1,180 @@
+package io.github.mattunlv.queue;
+
+/**
+ * RelaxedPaperQueue.java
+ * 
+ * This class implements Michael and Scott's lock-free queue with the weakest 
+ * memory ordering that keeps it correct at each access, over the same 
+ * VarHandleNode and VarHandleTestQueue as VarHandlePaperQueue. On x86 every load 
+ * already has acquire and every store release semantics, so this only differs 
+ * from VarHandlePaperQueue in the fences it leaves out around volatile stores. 
+ * On ARM and POWER it also avoids the full barriers of volatile loads and CASes.
+ * 
+ * Memory ordering:
+ * - The new node is initialised with plain writes.
+ * - The CAS that links it (tail.ptr->next) is a weak CAS with release 
+ *   semantics. It is retried in the loop, so a spurious failure only costs an 
+ *   iteration. Release is what publishes the node's value to the thread that 
+ *   reads the link.
+ * - Q->head, Q->tail and next are read with getAcquire. The checks that Q->head 
+ *   or Q->tail is unchanged come after the acquire read of next, so they cannot 
+ *   be reordered before it, which is all the paper's consistency checks need.
+ * - Q->tail is swung with a weak CAS with release semantics. A spurious failure 
+ *   leaves the tail lagging, which the algorithm already allows for: the next 
+ *   operation that sees it moves it on.
+ * - Q->head is advanced with a weak CAS with release semantics inside the retry 
+ *   loop, so the value read before it is read before the node is given up.
+ * 
+ * The CSP model in PaperCSPFiles/queue-paper.csp assumes sequentially consistent 
+ * memory, so it checks the same steps but not these orderings. They are checked 
+ * by the jcstress tests in QueueStressTests on hardware with a weak memory model.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the VarHandleTestQueue this implementation operates on.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the head and last nodes.
+ * - isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): Look at the node after the 
+ *   head without removing it.
+ * 
+ * Dependencies:
+ * - VarHandleTestQueue: Represents the queue structure.
+ * - VarHandleNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class RelaxedPaperQueue<E> implements SizedQueueImpl<E>
+{
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // node = new node, node->value = value, node->next.ptr = null
+        VarHandleNode<E> node = new VarHandleNode<E>(value);
+        VarHandleNode<E> tail;
+        VarHandleNode<E> next;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q);
+            // next = tail.ptr->next
+            next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(tail);
+            // if tail == Q->tail
+            if (tail == VarHandleTestQueue.TAIL.getAcquire(q))
+            {
+                // if next.ptr == null
+                if (next == null)
+                {
+                    // node->seq = tail.ptr->seq + 1
+                    node.seq = tail.seq + 1;
+                    // if CAS(&tail.ptr->next, next, node)
+                    if (VarHandleNode.NEXT.weakCompareAndSetRelease(tail, next, node))
+                        break;
+                }
+                else
+                {
+                    // CAS(Q->tail, tail, next.ptr)
+                    VarHandleTestQueue.TAIL.weakCompareAndSetRelease(q, tail, next);
+                }
+            }
+        }
+        // CAS(&Q->tail, tail, node)
+        VarHandleTestQueue.TAIL.weakCompareAndSetRelease(q, tail, node);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        E value = null;
+        while (true)
+        {
+            // head = Q->head
+            VarHandleNode<E> head = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q);
+            // tail = Q->tail
+            VarHandleNode<E> tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q);
+            // next = head->next
+            VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head);
+            // if head == Q->head
+            if (head == VarHandleTestQueue.HEAD.getAcquire(q))
+            {
+                // if head.ptr == tail.ptr
+                if (head == tail)
+                {
+                    // if next.ptr = null
+                    if (next == null)
+                        return null;
+                    // CAS(&Q->Tail, tail, next.ptr)
+                    VarHandleTestQueue.TAIL.weakCompareAndSetRelease(q, tail, next);
+                }
+                else
+                {
+                    // pvalue = next.ptr->value (never changes once linked)
+                    value = (E)VarHandleNode.VALUE.get(next);
+                    // if CAS(&Q->Head, head, next.ptr)
+                    if (VarHandleTestQueue.HEAD.weakCompareAndSetRelease(q, head, next))
+                        break;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "RelaxedPaperQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new VarHandleTestQueue<E>();
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // Read the head first: the tail is never behind it
+        VarHandleNode<E> head = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q);
+        VarHandleNode<E> tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.getAcquire(q);
+        // The tail may lag one node behind the last
+        VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(tail);
+        VarHandleNode<E> last = (next != null) ? next : tail;
+        return Math.max(0, last.seq - head.seq);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // A node whose next is null is the last, and only the head can be both
+        return VarHandleNode.NEXT.getAcquire((VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q)) == null;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        while (true)
+        {
+            // head = Q->head
+            VarHandleNode<E> head = (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q);
+            // next = head->next
+            VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head);
+            // if next.ptr = null
+            if (next == null)
+                return null;
+            // pvalue = next.ptr->value
+            E value = (E)VarHandleNode.VALUE.get(next);
+            // if head == Q->head, the value was first while it was read
+            if (head == (VarHandleNode<E>)VarHandleTestQueue.HEAD.getAcquire(q))
+                return value;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.mattunlv.queue;
+
+/**
+ * RingBufferQueue.java
+ * 
+ * This class implements a bounded, lock-free multi-producer multi-consumer queue 
+ * over a pre-allocated ring of slots, following Vyukov's bounded MPMC queue. 
+ * Each slot carries a sequence number that tells a thread whether the slot is 
+ * ready for its operation, so producers and consumers only contend on the 
+ * enqueue and dequeue positions and never allocate.
+ * 
+ * enqueue gives backpressure: when the ring is full it spins until a consumer 
+ * frees a slot. offer is the non-blocking form and returns false instead.
+ * 
+ * A slot can be claimed by a position but not yet written (or not yet freed). 
+ * Reporting empty (or full) in that window would not be linearizable, since a 
+ * later enqueue may already have completed. So dequeue only returns null when no 
+ * producer has claimed its position, and offer only fails when no consumer has 
+ * claimed the element one lap behind. Otherwise they wait for the other thread 
+ * to finish with the slot. This is the one place the queue is not lock-free.
+ * 
+ * The matching CSP model is PaperCSPFiles/queue-ring.csp.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element, waiting while the ring is 
+ *   full.
+ * - offer(TestQueue<E> Q, E value): Adds an element if there is room and reports 
+ *   whether it did.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if the ring 
+ *   is empty.
+ * - getImplName(): Returns the name of the implementation.
+ * - size(TestQueue<E> Q): Returns the number of claimed positions not yet 
+ *   dequeued.
+ * - isEmpty(TestQueue<E> Q): Returns whether dequeue would find the ring empty.
+ * - peek(TestQueue<E> Q): Returns the next element without removing it.
+ * - newQueue(): Creates a RingBufferTestQueue with this implementation's 
+ *   capacity.
+ * 
+ * Dependencies:
+ * - RingBufferTestQueue: Represents the queue structure.
+ */
+
+@SuppressWarnings("unchecked")
+public class RingBufferQueue<E> implements SizedQueueImpl<E>
+{
+    final int capacity;
+
+    public RingBufferQueue(int capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        while (!offer(Q, value))
+            Thread.onSpinWait();
+    }
+
+    public boolean offer(TestQueue<E> Q, E value)
+    {
+        RingBufferTestQueue<E> q = (RingBufferTestQueue<E>)Q;
+        long pos = q.enqueuePos;
+        int index;
+        while (true)
+        {
+            index = (int)pos & q.mask;
+            long seq = (long)RingBufferTestQueue.SEQUENCE.getAcquire(q.sequence, index);
+            long dif = seq - pos;
+            // slot is free for this position
+            if (dif == 0)
+            {
+                if (RingBufferTestQueue.ENQUEUE_POS.compareAndSet(q, pos, pos + 1))
+                    break;
+                pos = q.enqueuePos;
+            }
+            // slot still holds the element from the previous lap
+            else if (dif < 0)
+            {
+                // full only if no consumer has claimed that element yet
+                if (q.dequeuePos + q.mask + 1 <= pos)
+                    return false;
+                Thread.onSpinWait();
+                pos = q.enqueuePos;
+            }
+            // another producer claimed this position
+            else
+                pos = q.enqueuePos;
+        }
+        RingBufferTestQueue.BUFFER.set(q.buffer, index, value);
+        // publish the element to the consumer of this position
+        RingBufferTestQueue.SEQUENCE.setRelease(q.sequence, index, pos + 1);
+        return true;
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        RingBufferTestQueue<E> q = (RingBufferTestQueue<E>)Q;
+        long pos = q.dequeuePos;
+        int index;
+        while (true)
+        {
+            index = (int)pos & q.mask;
+            long seq = (long)RingBufferTestQueue.SEQUENCE.getAcquire(q.sequence, index);
+            long dif = seq - (pos + 1);
+            // slot holds the element for this position
+            if (dif == 0)
+            {
+                if (RingBufferTestQueue.DEQUEUE_POS.compareAndSet(q, pos, pos + 1))
+                    break;
+                pos = q.dequeuePos;
+            }
+            // slot has not been filled yet
+            else if (dif < 0)
+            {
+                // empty only if no producer has claimed this position yet
+                if (q.enqueuePos == pos)
+                    return null;
+                Thread.onSpinWait();
+                pos = q.dequeuePos;
+            }
+            // another consumer claimed this position
+            else
+                pos = q.dequeuePos;
+        }
+        E value = (E)RingBufferTestQueue.BUFFER.get(q.buffer, index);
+        RingBufferTestQueue.BUFFER.set(q.buffer, index, null);
+        // free the slot for the producer one lap ahead
+        RingBufferTestQueue.SEQUENCE.setRelease(q.sequence, index, pos + q.mask + 1);
+        return value;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        RingBufferTestQueue<E> q = (RingBufferTestQueue<E>)Q;
+        // Read the dequeue position first: it never passes the enqueue position
+        long dequeuePos = q.dequeuePos;
+        long enqueuePos = q.enqueuePos;
+        return Math.min(q.capacity(), enqueuePos - dequeuePos);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        RingBufferTestQueue<E> q = (RingBufferTestQueue<E>)Q;
+        // Empty on the same condition as dequeue: no producer has claimed the next position
+        long dequeuePos = q.dequeuePos;
+        return q.enqueuePos == dequeuePos;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        RingBufferTestQueue<E> q = (RingBufferTestQueue<E>)Q;
+        while (true)
+        {
+            long pos = q.dequeuePos;
+            int index = (int)pos & q.mask;
+            long seq = (long)RingBufferTestQueue.SEQUENCE.getAcquire(q.sequence, index);
+            long dif = seq - (pos + 1);
+            // slot holds the element for this position
+            if (dif == 0)
+            {
+                E value = (E)RingBufferTestQueue.BUFFER.get(q.buffer, index);
+                // still the first element if no consumer has claimed it meanwhile
+                if (q.dequeuePos == pos)
+                    return value;
+            }
+            // slot has not been filled yet
+            else if (dif < 0)
+            {
+                if (q.enqueuePos == pos)
+                    return null;
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "RingBufferQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new RingBufferTestQueue<E>(capacity);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * RingBufferTestQueue.java
+ *
+ * The queue structure used by RingBufferQueue: a pre-allocated array of slots, 
+ * each with its own sequence number, and the enqueue and dequeue positions. The 
+ * capacity is rounded up to a power of two so that a position maps to a slot 
+ * with a mask.
+ *
+ * Slot i starts with sequence i. A slot is free for the enqueue at position pos 
+ * when its sequence is pos, and full for the dequeue at position pos when its 
+ * sequence is pos + 1.
+ */
+
+public class RingBufferTestQueue<E> extends TestQueue<E>
+{
+    public final Object[] buffer;
+    public final long[] sequence;
+    public final int mask;
+    public volatile long enqueuePos;
+    public volatile long dequeuePos;
+
+    public static final VarHandle BUFFER = MethodHandles.arrayElementVarHandle(Object[].class);
+    public static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    public static final VarHandle ENQUEUE_POS;
+    public static final VarHandle DEQUEUE_POS;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ENQUEUE_POS = lookup.findVarHandle(RingBufferTestQueue.class, "enqueuePos", long.class);
+            DEQUEUE_POS = lookup.findVarHandle(RingBufferTestQueue.class, "dequeuePos", long.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public RingBufferTestQueue(int capacity)
+    {
+        super(null, null);
+        if (capacity < 2 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequence = new long[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; ++i)
+            this.sequence[i] = i;
+    }
+
+    public int capacity()
+    {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.mattunlv.queue;
+
+/**
+ * SizedBlockingQueueImpl.java
+ * 
+ * A BlockingQueueImpl over a SizedQueueImpl, which also answers size, isEmpty 
+ * and peek by asking the wrapped queue.
+ * 
+ * Key Methods:
+ * - size(TestQueue<E> Q), isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): Ask the 
+ *   wrapped queue.
+ * 
+ * Dependencies:
+ * - BlockingQueueImpl: Provides every other operation.
+ * - SizedQueueImpl: The wrapped implementation.
+ */
+
+public class SizedBlockingQueueImpl<E> extends BlockingQueueImpl<E> implements SizedQueueImpl<E>
+{
+    final SizedQueueImpl<E> sized;
+
+    public SizedBlockingQueueImpl(SizedQueueImpl<E> impl)
+    {
+        super(impl);
+        this.sized = impl;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        return sized.size(((BlockingTestQueue<E>)Q).queue);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        return sized.isEmpty(((BlockingTestQueue<E>)Q).queue);
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        return sized.peek(((BlockingTestQueue<E>)Q).queue);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.mattunlv.queue;
+
+/**
+ * SizedEliminationQueueImpl.java
+ * 
+ * An EliminationQueueImpl over a SizedQueueImpl, which also answers size, 
+ * isEmpty and peek by asking the wrapped queue. A value waiting in a slot has 
+ * not been enqueued yet, so it is not counted.
+ * 
+ * Key Methods:
+ * - size(TestQueue<E> Q), isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): Ask the 
+ *   wrapped queue.
+ * 
+ * Dependencies:
+ * - EliminationQueueImpl: Provides every other operation.
+ * - SizedQueueImpl: The wrapped implementation.
+ */
+
+public class SizedEliminationQueueImpl<E> extends EliminationQueueImpl<E> implements SizedQueueImpl<E>
+{
+    final SizedQueueImpl<E> sized;
+
+    public SizedEliminationQueueImpl(SizedQueueImpl<E> impl)
+    {
+        super(impl);
+        this.sized = impl;
+    }
+
+    public SizedEliminationQueueImpl(SizedQueueImpl<E> impl, int slots)
+    {
+        super(impl, slots);
+        this.sized = impl;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        return sized.size(((EliminationTestQueue<E>)Q).queue);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        return sized.isEmpty(((EliminationTestQueue<E>)Q).queue);
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        return sized.peek(((EliminationTestQueue<E>)Q).queue);
+    }
+}
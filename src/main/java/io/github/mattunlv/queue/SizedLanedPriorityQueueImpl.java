@@ -0,0 +1,70 @@
+package io.github.mattunlv.queue;
+
+/**
+ * SizedLanedPriorityQueueImpl.java
+ * 
+ * A LanedPriorityQueueImpl over a SizedQueueImpl, which also answers size, 
+ * isEmpty and peek by combining the lanes, highest priority first.
+ * 
+ * Key Methods:
+ * - size(TestQueue<E> Q): Adds up the sizes of the lanes.
+ * - isEmpty(TestQueue<E> Q): Returns true if every lane is empty.
+ * - peek(TestQueue<E> Q): Returns the first element of the highest-priority 
+ *   non-empty lane.
+ * 
+ * Dependencies:
+ * - LanedPriorityQueueImpl: Provides every other operation.
+ * - SizedQueueImpl: The wrapped implementation.
+ */
+
+public class SizedLanedPriorityQueueImpl<E> extends LanedPriorityQueueImpl<E> implements SizedQueueImpl<E>
+{
+    final SizedQueueImpl<E> sized;
+
+    public SizedLanedPriorityQueueImpl(SizedQueueImpl<E> impl, int lanes)
+    {
+        super(impl, lanes);
+        this.sized = impl;
+    }
+
+    public SizedLanedPriorityQueueImpl(SizedQueueImpl<E> impl, int[] weights)
+    {
+        super(impl, weights);
+        this.sized = impl;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        LanedPriorityTestQueue<E> q = (LanedPriorityTestQueue<E>)Q;
+        long size = 0;
+        for (TestQueue<E> lane : q.lanes)
+            size += sized.size(lane);
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        LanedPriorityTestQueue<E> q = (LanedPriorityTestQueue<E>)Q;
+        for (TestQueue<E> lane : q.lanes)
+        {
+            if (!sized.isEmpty(lane))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        LanedPriorityTestQueue<E> q = (LanedPriorityTestQueue<E>)Q;
+        for (TestQueue<E> lane : q.lanes)
+        {
+            E value = sized.peek(lane);
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+}
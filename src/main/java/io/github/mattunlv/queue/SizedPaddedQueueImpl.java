@@ -0,0 +1,45 @@
+package io.github.mattunlv.queue;
+
+/**
+ * SizedPaddedQueueImpl.java
+ * 
+ * A PaddedQueueImpl over a SizedQueueImpl, which also passes size, isEmpty and 
+ * peek to the wrapped implementation.
+ * 
+ * Key Methods:
+ * - size(TestQueue<E> Q), isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): Passed 
+ *   to the wrapped implementation.
+ * 
+ * Dependencies:
+ * - PaddedQueueImpl: Provides every other operation.
+ * - SizedQueueImpl: The wrapped implementation.
+ */
+
+public class SizedPaddedQueueImpl<E> extends PaddedQueueImpl<E> implements SizedQueueImpl<E>
+{
+    final SizedQueueImpl<E> sized;
+
+    public SizedPaddedQueueImpl(SizedQueueImpl<E> impl)
+    {
+        super(impl);
+        this.sized = impl;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        return sized.size(Q);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        return sized.isEmpty(Q);
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        return sized.peek(Q);
+    }
+}
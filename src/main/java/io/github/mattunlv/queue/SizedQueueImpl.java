@@ -0,0 +1,20 @@
+package io.github.mattunlv.queue;
+
+// A QueueImpl that can also report its size and look at its first element
+public interface SizedQueueImpl<E> extends QueueImpl<E>
+{
+    // Returns the number of elements. Exact when no other thread is using the
+    // queue. Otherwise it is an estimate that may be off by the number of
+    // operations in progress.
+    public long size(TestQueue<E> Q);
+
+    // Returns true if the queue has no elements.
+    public default boolean isEmpty(TestQueue<E> Q)
+    {
+        return peek(Q) == null;
+    }
+
+    // Returns the element dequeue would return, without removing it, or null if
+    // the queue is empty.
+    public E peek(TestQueue<E> Q);
+}
@@ -0,0 +1,68 @@
+package io.github.mattunlv.queue;
+
+/**
+ * SizedStripedQueueImpl.java
+ * 
+ * A StripedQueueImpl over a SizedQueueImpl, created by 
+ * StripedQueueImpl.relaxedFifo. It also answers size, isEmpty and peek by 
+ * combining the stripes, with the same relaxed guarantees as dequeue.
+ * 
+ * Key Methods:
+ * - size(TestQueue<E> Q): Adds up the sizes of the stripes.
+ * - isEmpty(TestQueue<E> Q): Returns true if every stripe is empty.
+ * - peek(TestQueue<E> Q): Looks at the stripes in the same order as the 
+ *   caller's dequeue.
+ * 
+ * Dependencies:
+ * - StripedQueueImpl: Provides every other operation.
+ * - SizedQueueImpl: The wrapped implementation.
+ */
+
+public class SizedStripedQueueImpl<E> extends StripedQueueImpl<E> implements SizedQueueImpl<E>
+{
+    final SizedQueueImpl<E> sized;
+
+    SizedStripedQueueImpl(SizedQueueImpl<E> impl, int stripes)
+    {
+        super(impl, stripes);
+        this.sized = impl;
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        long size = 0;
+        for (TestQueue<E> stripe : q.stripes)
+            size += sized.size(stripe);
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        for (TestQueue<E> stripe : q.stripes)
+        {
+            if (!sized.isEmpty(stripe))
+                return false;
+        }
+        return true;
+    }
+
+    // Returns the element dequeue would return from the caller's thread
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        for (int i = 0, s = home(); i < stripes; ++i)
+        {
+            E value = sized.peek(q.stripes[s]);
+            if (value != null)
+                return value;
+            if (++s == stripes)
+                s = 0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.mattunlv.queue;
+
+/**
+ * SpscQueue.java
+ * 
+ * This class implements an unbounded single-producer single-consumer queue over 
+ * VarHandleNode<E> and VarHandleTestQueue. With one producer the tail is owned by 
+ * the producer and with one consumer the head is owned by the consumer, so both 
+ * are read and written with plain accesses. The only cross-thread edge is the 
+ * next pointer of the last node: the producer publishes the new node with a 
+ * release store and the consumer reads it with an acquire load. No CAS is 
+ * needed on either side.
+ * 
+ * Only one thread may enqueue and only one thread may dequeue at a time, though 
+ * they need not be the same thread for the lifetime of the queue if ownership is 
+ * handed over with a happens-before edge (e.g. Thread.join). Use 
+ * Topology.SPSC.create() to obtain one.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue. Must only be 
+ *   called by the producer.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if the queue 
+ *   is empty. Must only be called by the consumer.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the VarHandleTestQueue this implementation operates on.
+ * 
+ * Dependencies:
+ * - VarHandleTestQueue: Represents the queue structure.
+ * - VarHandleNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class SpscQueue<E> implements QueueImpl<E>
+{
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // node = new node
+        VarHandleNode<E> node = new VarHandleNode<E>(value);
+        // tail = Q->tail (owned by the producer)
+        VarHandleNode<E> tail = (VarHandleNode<E>)VarHandleTestQueue.TAIL.get(q);
+        // tail->next = node, publishing the node to the consumer
+        VarHandleNode.NEXT.setRelease(tail, node);
+        // Q->tail = node
+        VarHandleTestQueue.TAIL.set(q, node);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // head = Q->head (owned by the consumer)
+        VarHandleNode<E> head = (VarHandleNode<E>)VarHandleTestQueue.HEAD.get(q);
+        // next = head->next
+        VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head);
+        // if next == null
+        if (next == null)
+            return null;
+        // value = next->value
+        E value = (E)VarHandleNode.VALUE.get(next);
+        // next becomes the dummy node, drop its value
+        VarHandleNode.VALUE.set(next, null);
+        // Q->head = next
+        VarHandleTestQueue.HEAD.set(q, next);
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "SpscQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new VarHandleTestQueue<E>();
+    }
+}
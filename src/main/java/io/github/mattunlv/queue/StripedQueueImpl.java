@@ -0,0 +1,137 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+
+/**
+ * StripedQueueImpl.java
+ * 
+ * This class spreads a queue over a number of stripes, each an independent queue 
+ * of the wrapped implementation, so that threads on different stripes never 
+ * contend on the same head or tail. Each thread has a home stripe chosen from its 
+ * thread ID. It always enqueues onto its home stripe and dequeues from it first, 
+ * and only when its home stripe is empty does it steal from the others, starting 
+ * with the next stripe along.
+ * 
+ * The queue is not FIFO, so it can only be created through relaxedFifo() to make 
+ * the choice explicit. What it does guarantee:
+ * - Every element is dequeued exactly once.
+ * - Elements enqueued by one thread are dequeued in the order they were 
+ *   enqueued, since they all go onto the same stripe.
+ * - dequeue returns null only after finding every stripe empty. Another thread 
+ *   may have enqueued onto a stripe already checked, so unlike the wrapped 
+ *   implementation this empty result is not linearizable.
+ * 
+ * Key Methods:
+ * - relaxedFifo(QueueImpl<E> impl, int stripes): Creates a striped queue over the 
+ *   given implementation.
+ * - relaxedFifo(SizedQueueImpl<E> impl, int stripes): Creates a 
+ *   SizedStripedQueueImpl, which adds size, isEmpty and peek.
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the caller's home 
+ *   stripe.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the caller's 
+ *   home stripe, stealing from the other stripes if it is empty.
+ * - enqueueAll(TestQueue<E> Q, Collection<? extends E> values): Adds the batch to 
+ *   the caller's home stripe.
+ * - drainTo(TestQueue<E> Q, Collection<? super E> sink, int max): Drains the home 
+ *   stripe, then the others, until max elements have been removed.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates a StripedTestQueue with a queue of the wrapped 
+ *   implementation per stripe.
+ * 
+ * Dependencies:
+ * - StripedTestQueue: Represents the queue structure.
+ * - QueueImpl: The wrapped implementation.
+ */
+
+public class StripedQueueImpl<E> implements QueueImpl<E>
+{
+    final QueueImpl<E> impl;
+    final int stripes;
+
+    StripedQueueImpl(QueueImpl<E> impl, int stripes)
+    {
+        if (stripes < 1)
+            throw new IllegalArgumentException("Stripes must be at least 1: " + stripes);
+        this.impl = impl;
+        this.stripes = stripes;
+    }
+
+    public static <E> StripedQueueImpl<E> relaxedFifo(QueueImpl<E> impl, int stripes)
+    {
+        return new StripedQueueImpl<E>(impl, stripes);
+    }
+
+    public static <E> SizedStripedQueueImpl<E> relaxedFifo(SizedQueueImpl<E> impl, int stripes)
+    {
+        return new SizedStripedQueueImpl<E>(impl, stripes);
+    }
+
+    // The same thread always maps to the same stripe
+    int home()
+    {
+        return (int)(Thread.currentThread().getId() % stripes);
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        impl.enqueue(q.stripes[home()], value);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        int home = home();
+        for (int i = 0, s = home; i < stripes; ++i)
+        {
+            E value = impl.dequeue(q.stripes[s]);
+            if (value != null)
+                return value;
+            if (++s == stripes)
+                s = 0;
+        }
+        return null;
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        impl.enqueueAll(q.stripes[home()], values);
+    }
+
+    @Override
+    public int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        StripedTestQueue<E> q = (StripedTestQueue<E>)Q;
+        int count = 0;
+        for (int i = 0, s = home(); i < stripes && count < max; ++i)
+        {
+            count += impl.drainTo(q.stripes[s], sink, max - count);
+            if (++s == stripes)
+                s = 0;
+        }
+        return count;
+    }
+
+
+
+
+    @Override
+    public String getImplName() 
+    {
+        return "Striped" + impl.getImplName();
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        @SuppressWarnings("unchecked")
+        TestQueue<E>[] queues = (TestQueue<E>[])new TestQueue<?>[stripes];
+        for (int i = 0; i < stripes; ++i)
+            queues[i] = impl.newQueue();
+        return new StripedTestQueue<E>(queues);
+    }
+}
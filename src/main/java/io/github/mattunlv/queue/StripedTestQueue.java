@@ -0,0 +1,19 @@
+package io.github.mattunlv.queue;
+
+/**
+ * StripedTestQueue.java
+ *
+ * The queue structure used by StripedQueueImpl: one queue of the wrapped 
+ * implementation per stripe.
+ */
+
+public class StripedTestQueue<E> extends TestQueue<E>
+{
+    public final TestQueue<E>[] stripes;
+
+    public StripedTestQueue(TestQueue<E>[] stripes)
+    {
+        super(null, null);
+        this.stripes = stripes;
+    }
+}
@@ -0,0 +1,344 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * StructuredJDKQueue.java
+ * 
+ * This class implements a thread-safe queue designed to follow structured 
+ * programming principles. It provides methods for enqueueing and dequeueing 
+ * elements in a non-blocking, lock-free manner using atomic operations.
+ * 
+ * The queue leverages atomic references to ensure thread safety and consistency 
+ * while minimizing contention. It is optimized for efficient concurrent access, 
+ * making it suitable for high-performance, multi-threaded applications.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - enqueueAll(TestQueue<E> Q, Collection<? extends E> values): Links a 
+ *   privately built chain of nodes onto the last node with a single CAS.
+ * - drainTo(TestQueue<E> Q, Collection<? super E> sink, int max): Claims up to 
+ *   max elements and updates the head once for the whole batch.
+ * - getImplName(): Returns the name of the implementation.
+ * - updateHead(TestQueue<E> Q, Node<E> head, Node<E> pointer): Updates the head of the 
+ *   queue to maintain consistency during dequeue operations.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the first unclaimed node and the last node.
+ * - peek(TestQueue<E> Q): Returns the first unclaimed element without removing 
+ *   it. isEmpty is peek(Q) == null.
+ * - StructuredJDKQueue(BackoffPolicy backoff): Creates the queue with a policy 
+ *   applied after each failed CAS on a link or an item. The default retries at 
+ *   once.
+ * - getMetrics(): Returns the contention counters of enqueue and dequeue, 
+ *   recorded when QueueMetrics.ENABLED is set.
+ * 
+ * Dependencies:
+ * - java.util.concurrent.atomic.AtomicReference: Used for atomic operations.
+ * - TestQueue: Represents the queue structure.
+ * - Node: Represents a node in the queue.
+ * - QueueMetrics: Records contention when enabled.
+ * 
+ * Author: Kevin Chalmers
+ * Date: 24 March 2025
+ */
+
+public class StructuredJDKQueue<E> implements SizedQueueImpl<E>
+{
+    final QueueMetrics metrics = new QueueMetrics();
+    final BackoffPolicy backoff;
+
+    public StructuredJDKQueue()
+    {
+        this(BackoffPolicy.none());
+    }
+
+    public StructuredJDKQueue(BackoffPolicy backoff)
+    {
+        this.backoff = backoff;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value) 
+    {
+        Node<E> node = new Node<E>();
+        node.value.set(value);
+        node.next.set(null);
+        Node<E> tail = Q.tail.get();
+        Node<E> pointer = tail;
+        int walked = 0;
+        int failures = 0;
+        while (true)
+        {
+            Node<E> next = pointer.next.get();
+            if (next == null)
+            {
+                node.seq = pointer.seq + 1;
+                if (metrics.cas(QueueMetrics.Site.LINK, pointer.next.compareAndSet(null, node)))
+                {
+                    if (pointer != tail)
+                    {
+                        metrics.record(QueueMetrics.Event.LAGGING_TAIL_FIXUPS);
+                        metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, node));
+                    }
+                    metrics.add(QueueMetrics.Event.NODES_TRAVERSED, walked);
+                    metrics.record(QueueMetrics.Event.ENQUEUES);
+                    return;
+                }
+                backoff.backoff(++failures);
+            }
+            else if (pointer == next)
+            {
+                metrics.record(QueueMetrics.Event.HEAD_RESTARTS);
+                pointer = (tail != (tail = Q.tail.get())) ? tail : Q.head.get();
+            }
+            else
+            {
+                ++walked;
+                pointer = (pointer != tail && tail != (tail = Q.tail.get())) ? tail : next;
+            }
+        }
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q) 
+    {
+        int walked = 0;
+        int failures = 0;
+        restartFromHead: while (true)
+        {
+            for (Node<E> head = Q.head.get(), pointer = head, next;; pointer = next, ++walked)
+            {
+                E item;
+                if ((item = pointer.value.get()) != null)
+                {
+                    if (metrics.cas(QueueMetrics.Site.ITEM, pointer.value.compareAndSet(item, null)))
+                    {
+                        if (pointer != head)
+                            updateHead(Q, head, ((next = pointer.next.get()) != null) ? next : pointer);
+                        metrics.add(QueueMetrics.Event.NODES_TRAVERSED, walked);
+                        metrics.record(QueueMetrics.Event.DEQUEUES);
+                        return item;
+                    }
+                    backoff.backoff(++failures);
+                }
+                if ((next = pointer.next.get()) == null)
+                {
+                    updateHead(Q, head, pointer);
+                    metrics.add(QueueMetrics.Event.NODES_TRAVERSED, walked);
+                    metrics.record(QueueMetrics.Event.EMPTY_DEQUEUES);
+                    return null;
+                }
+                else if (pointer == next)
+                {
+                    metrics.record(QueueMetrics.Event.HEAD_RESTARTS);
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        Node<E> first = null;
+        Node<E> last = null;
+        int count = 0;
+        // Build the chain privately: plain writes, published by the CAS below
+        for (E value : values)
+        {
+            Node<E> node = new Node<E>();
+            node.value.setPlain(value);
+            if (first == null)
+                first = node;
+            else
+                last.next.setPlain(node);
+            last = node;
+            ++count;
+        }
+        if (first == null)
+            return;
+        Node<E> tail = Q.tail.get();
+        Node<E> pointer = tail;
+        int walked = 0;
+        int failures = 0;
+        long base = -1;
+        while (true)
+        {
+            Node<E> next = pointer.next.get();
+            if (next == null)
+            {
+                // Number the chain from pointer->seq, again only if pointer moved
+                if (base != pointer.seq)
+                {
+                    base = pointer.seq;
+                    long seq = base;
+                    for (Node<E> node = first; node != null; node = node.next.getPlain())
+                        node.seq = ++seq;
+                }
+                if (metrics.cas(QueueMetrics.Site.LINK, pointer.next.compareAndSet(null, first)))
+                {
+                    if (pointer != tail)
+                        metrics.record(QueueMetrics.Event.LAGGING_TAIL_FIXUPS);
+                    // Always move the tail to the end of the batch so that it
+                    // does not lag by the whole chain
+                    if (!metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, last)))
+                    {
+                        tail = Q.tail.get();
+                        if (last.next.get() == null)
+                            metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, last));
+                    }
+                    metrics.add(QueueMetrics.Event.NODES_TRAVERSED, walked);
+                    metrics.add(QueueMetrics.Event.ENQUEUES, count);
+                    return;
+                }
+                backoff.backoff(++failures);
+            }
+            else if (pointer == next)
+            {
+                metrics.record(QueueMetrics.Event.HEAD_RESTARTS);
+                pointer = (tail != (tail = Q.tail.get())) ? tail : Q.head.get();
+            }
+            else
+            {
+                ++walked;
+                pointer = (pointer != tail && tail != (tail = Q.tail.get())) ? tail : next;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        if (max <= 0)
+            return 0;
+        int count = 0;
+        int walked = 0;
+        int failures = 0;
+        restartFromHead: while (true)
+        {
+            for (Node<E> head = Q.head.get(), pointer = head, next;; pointer = next, ++walked)
+            {
+                E item;
+                if ((item = pointer.value.get()) != null)
+                {
+                    if (metrics.cas(QueueMetrics.Site.ITEM, pointer.value.compareAndSet(item, null)))
+                    {
+                        sink.add(item);
+                        // Every node up to pointer is now claimed, so the head can
+                        // move past all of them at once
+                        if (++count == max)
+                        {
+                            updateHead(Q, head, ((next = pointer.next.get()) != null) ? next : pointer);
+                            metrics.add(QueueMetrics.Event.NODES_TRAVERSED, walked);
+                            metrics.add(QueueMetrics.Event.DEQUEUES, count);
+                            return count;
+                        }
+                    }
+                    else
+                        backoff.backoff(++failures);
+                }
+                if ((next = pointer.next.get()) == null)
+                {
+                    updateHead(Q, head, pointer);
+                    metrics.add(QueueMetrics.Event.NODES_TRAVERSED, walked);
+                    if (count == 0)
+                        metrics.record(QueueMetrics.Event.EMPTY_DEQUEUES);
+                    else
+                        metrics.add(QueueMetrics.Event.DEQUEUES, count);
+                    return count;
+                }
+                else if (pointer == next)
+                {
+                    metrics.record(QueueMetrics.Event.HEAD_RESTARTS);
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "StructuredJDKQueue";
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        restartFromHead: while (true)
+        {
+            // Skip the claimed nodes that updateHead has not passed yet. Elements
+            // are claimed in list order, so every node from the first unclaimed
+            // one to the last holds an element.
+            for (Node<E> pointer = Q.head.get(), next;; pointer = next)
+            {
+                if (pointer.value.get() != null)
+                    return Math.max(0, last(Q, pointer).seq - pointer.seq + 1);
+                else if ((next = pointer.next.get()) == null)
+                    return 0;
+                else if (pointer == next)
+                    continue restartFromHead;
+            }
+        }
+    }
+
+    // Follows next pointers from the tail to the last node. The tail may be
+    // behind first, or on a removed node, so fall back to first or the head then.
+    Node<E> last(TestQueue<E> Q, Node<E> first)
+    {
+        Node<E> pointer = Q.tail.get();
+        if (pointer.seq < first.seq)
+            pointer = first;
+        for (Node<E> next; (next = pointer.next.get()) != null; pointer = next)
+        {
+            if (pointer == next)
+            {
+                next = Q.head.get();
+                if (next == pointer)
+                    return pointer;
+            }
+        }
+        return pointer;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        restartFromHead: while (true)
+        {
+            for (Node<E> pointer = Q.head.get(), next;; pointer = next)
+            {
+                E item;
+                if ((item = pointer.value.get()) != null)
+                    return item;
+                else if ((next = pointer.next.get()) == null)
+                    return null;
+                else if (pointer == next)
+                    continue restartFromHead;
+            }
+        }
+    }
+
+    public QueueMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    void updateHead(TestQueue<E> Q, Node<E> head, Node<E> pointer)
+    {
+        if (head != pointer)
+        {
+            AtomicReference<Node<E>> tmp_node = Q.head;
+            boolean success = metrics.cas(QueueMetrics.Site.HEAD, tmp_node.compareAndSet(head, pointer));
+            if (success)
+            {
+                tmp_node = head.next;
+                tmp_node.set(head);
+            }
+        }
+    }
+}
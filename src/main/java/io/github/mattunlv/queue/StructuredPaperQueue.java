@@ -0,0 +1,328 @@
+package io.github.mattunlv.queue;
+
+import java.util.Collection;
+
+/**
+ * StructuredPaperQueue.java
+ * 
+ * This class implements a thread-safe queue based on the algorithm described 
+ * in a Michael and Scott's paper, following structured programming principles. It provides 
+ * methods for enqueueing and dequeueing elements in a non-blocking, lock-free manner 
+ * using atomic operations.
+ * 
+ * The queue leverages atomic references to ensure thread safety and consistency 
+ * while minimizing contention. It is optimized for efficient concurrent access, 
+ * making it suitable for high-performance, multi-threaded applications.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - enqueueAll(TestQueue<E> Q, Collection<? extends E> values): Links a 
+ *   privately built chain of nodes onto the tail with a single CAS.
+ * - drainTo(TestQueue<E> Q, Collection<? super E> sink, int max): Removes up 
+ *   to max elements by advancing the head past all of them with a single CAS.
+ * - size(TestQueue<E> Q): Returns the approximate number of elements from the 
+ *   sequence numbers of the head and last nodes.
+ * - isEmpty(TestQueue<E> Q): Returns whether the head has a successor.
+ * - peek(TestQueue<E> Q): Returns the first element without removing it.
+ * - getImplName(): Returns the name of the implementation.
+ * - StructuredPaperQueue(BackoffPolicy backoff): Creates the queue with a policy 
+ *   applied after each failed CAS on the link or the head. The default retries 
+ *   at once.
+ * - getMetrics(): Returns the contention counters of enqueue and dequeue, 
+ *   recorded when QueueMetrics.ENABLED is set.
+ * 
+ * Dependencies:
+ * - TestQueue: Represents the queue structure.
+ * - Node: Represents a node in the queue.
+ * - QueueMetrics: Records contention when enabled.
+ * 
+ * Author: Kevin Chalm
+ * Date: 24 March 2025
+ */
+
+public class StructuredPaperQueue<E> implements SizedQueueImpl<E>
+{
+    final QueueMetrics metrics = new QueueMetrics();
+    final BackoffPolicy backoff;
+
+    public StructuredPaperQueue()
+    {
+        this(BackoffPolicy.none());
+    }
+
+    public StructuredPaperQueue(BackoffPolicy backoff)
+    {
+        this.backoff = backoff;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        // node = new node
+        Node<E> node = new Node<E>();
+        // node->value = value
+        node.value.set(value);
+        // node->next.ptr = null
+        node.next.set(null);
+        Node<E> tail;
+        Node<E> next;
+        int failures = 0;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = Q.tail.get();
+            // next = tail.ptr->next
+            next = tail.next.get();
+            // if tail == Q->tail
+            if (tail == Q.tail.get())
+            {
+                // if next.ptr == null
+                if (next == null)
+                {
+                    // node->seq = tail.ptr->seq + 1
+                    node.seq = tail.seq + 1;
+                    // if CAS(&tail.ptr->next, next, node)
+                    if (metrics.cas(QueueMetrics.Site.LINK, tail.next.compareAndSet(next, node)))
+                        break;
+                    backoff.backoff(++failures);
+                }
+                else
+                {
+                    // if CAS(Q->tail, tail, next.ptr)
+                    metrics.record(QueueMetrics.Event.LAGGING_TAIL_FIXUPS);
+                    metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, next));
+                }
+            }
+            else
+                metrics.record(QueueMetrics.Event.STALE_SNAPSHOTS);
+        }
+        // CAS(&Q->tail, tail, node)
+        metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, node));
+        metrics.record(QueueMetrics.Event.ENQUEUES);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        E value = null;
+        int failures = 0;
+        while (true)
+        {
+            // head = Q->head
+            Node<E> head = Q.head.get();
+            // tail = Q->tail
+            Node<E> tail = Q.tail.get();
+            // next = head->next
+            Node<E> next = head.next.get();
+            // if head == Q->head
+            if (head == Q.head.get())
+            {
+                // if head.ptr == tail.ptr
+                if (head == tail)
+                {
+                    // if next.ptr = null
+                    if (next == null)
+                    {
+                        metrics.record(QueueMetrics.Event.EMPTY_DEQUEUES);
+                        return null;
+                    }
+                    // CAS(&Q->Tail, tail, next.ptr)
+                    metrics.record(QueueMetrics.Event.LAGGING_TAIL_FIXUPS);
+                    metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, next));
+                }
+                else
+                {
+                    // pvalue = next.ptr->value
+                    value = next.value.get();
+                    if (metrics.cas(QueueMetrics.Site.HEAD, Q.head.compareAndSet(head, next)))
+                        break;
+                    backoff.backoff(++failures);
+                }
+            }
+            else
+                metrics.record(QueueMetrics.Event.STALE_SNAPSHOTS);
+        }
+        metrics.record(QueueMetrics.Event.DEQUEUES);
+        return value;
+    }
+
+    @Override
+    public void enqueueAll(TestQueue<E> Q, Collection<? extends E> values)
+    {
+        Node<E> first = null;
+        Node<E> last = null;
+        int count = 0;
+        // Build the chain privately: plain writes, published by the CAS below
+        for (E value : values)
+        {
+            Node<E> node = new Node<E>();
+            node.value.setPlain(value);
+            if (first == null)
+                first = node;
+            else
+                last.next.setPlain(node);
+            last = node;
+            ++count;
+        }
+        if (first == null)
+            return;
+        Node<E> tail;
+        Node<E> next;
+        int failures = 0;
+        long base = -1;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = Q.tail.get();
+            // next = tail.ptr->next
+            next = tail.next.get();
+            // if tail == Q->tail
+            if (tail == Q.tail.get())
+            {
+                // if next.ptr == null
+                if (next == null)
+                {
+                    // Number the chain from tail.ptr->seq, again only if the tail moved
+                    if (base != tail.seq)
+                    {
+                        base = tail.seq;
+                        long seq = base;
+                        for (Node<E> node = first; node != null; node = node.next.getPlain())
+                            node.seq = ++seq;
+                    }
+                    // if CAS(&tail.ptr->next, next, first)
+                    if (metrics.cas(QueueMetrics.Site.LINK, tail.next.compareAndSet(next, first)))
+                        break;
+                    backoff.backoff(++failures);
+                }
+                else
+                {
+                    // if CAS(Q->tail, tail, next.ptr)
+                    metrics.record(QueueMetrics.Event.LAGGING_TAIL_FIXUPS);
+                    metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, next));
+                }
+            }
+            else
+                metrics.record(QueueMetrics.Event.STALE_SNAPSHOTS);
+        }
+        // CAS(&Q->tail, tail, last), others help along the chain if this fails
+        metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, last));
+        metrics.add(QueueMetrics.Event.ENQUEUES, count);
+    }
+
+    @Override
+    public int drainTo(TestQueue<E> Q, Collection<? super E> sink, int max)
+    {
+        if (max <= 0)
+            return 0;
+        int failures = 0;
+        while (true)
+        {
+            // head = Q->head
+            Node<E> head = Q.head.get();
+            // tail = Q->tail
+            Node<E> tail = Q.tail.get();
+            // next = head->next
+            Node<E> next = head.next.get();
+            // if head == Q->head
+            if (head == Q.head.get())
+            {
+                // if head.ptr == tail.ptr
+                if (head == tail)
+                {
+                    // if next.ptr = null
+                    if (next == null)
+                    {
+                        metrics.record(QueueMetrics.Event.EMPTY_DEQUEUES);
+                        return 0;
+                    }
+                    // CAS(&Q->Tail, tail, next.ptr)
+                    metrics.record(QueueMetrics.Event.LAGGING_TAIL_FIXUPS);
+                    metrics.cas(QueueMetrics.Site.TAIL, Q.tail.compareAndSet(tail, next));
+                }
+                else
+                {
+                    // Walk up to max nodes, never past the tail we read, so
+                    // that the head cannot overtake Q->tail
+                    Node<E> last = next;
+                    int count = 1;
+                    while (count < max && last != tail)
+                    {
+                        last = last.next.get();
+                        ++count;
+                    }
+                    metrics.add(QueueMetrics.Event.NODES_TRAVERSED, count - 1);
+                    // CAS(&Q->Head, head, last) takes the whole batch
+                    if (metrics.cas(QueueMetrics.Site.HEAD, Q.head.compareAndSet(head, last)))
+                    {
+                        // Values never change once linked
+                        for (Node<E> node = next;; node = node.next.get())
+                        {
+                            sink.add(node.value.get());
+                            if (node == last)
+                                break;
+                        }
+                        metrics.add(QueueMetrics.Event.DEQUEUES, count);
+                        return count;
+                    }
+                    backoff.backoff(++failures);
+                }
+            }
+            else
+                metrics.record(QueueMetrics.Event.STALE_SNAPSHOTS);
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "StructuredPaperQueue";
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        // Read the head first: the tail is never behind it
+        Node<E> head = Q.head.get();
+        Node<E> tail = Q.tail.get();
+        // The tail may lag one node behind the last
+        Node<E> next = tail.next.get();
+        Node<E> last = (next != null) ? next : tail;
+        return Math.max(0, last.seq - head.seq);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        // A node whose next is null is the last, and only the head can be both
+        return Q.head.get().next.get() == null;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        while (true)
+        {
+            // head = Q->head
+            Node<E> head = Q.head.get();
+            // next = head->next
+            Node<E> next = head.next.get();
+            // if next.ptr = null
+            if (next == null)
+                return null;
+            // pvalue = next.ptr->value
+            E value = next.value.get();
+            // if head == Q->head, the value was first while it was read
+            if (head == Q.head.get())
+                return value;
+        }
+    }
+
+    public QueueMetrics getMetrics()
+    {
+        return metrics;
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.mattunlv.queue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TestQueue.java
+ *
+ * The queue structure the QueueImpl operations work on. The AtomicReference 
+ * head and tail are the Michael and Scott queue used by the original 
+ * implementations, which accept any TestQueue.
+ *
+ * Implementations that need a different structure subclass TestQueue and cast 
+ * the TestQueue they are given to it, so their operations must only be passed 
+ * queues from their own newQueue(). Such subclasses keep all their state in 
+ * their own fields and pass null to the protected constructor, which leaves 
+ * head and tail null rather than allocating a sentinel node for them.
+ */
+
+public class TestQueue<E> 
+{
+    public AtomicReference<Node<E>> head;
+    public AtomicReference<Node<E>> tail;
+
+    public TestQueue()
+    {
+        this(new AtomicReference<Node<E>>(), new AtomicReference<Node<E>>());
+    }
+
+    // Lets a subclass supply its own head and tail references (see PaddedTestQueue),
+    // or pass null for both when it does not use them
+    protected TestQueue(AtomicReference<Node<E>> head, AtomicReference<Node<E>> tail)
+    {
+        this.head = head;
+        this.tail = tail;
+        if (head == null)
+            return;
+        // Node = new node
+        Node<E> node = new Node<E>();
+        // node->next.ptr = null
+        node.next.set(null);
+        // Q->head = Q->tail = node
+        this.head.set(node);
+        this.tail.set(node);
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.mattunlv.queue;
+
+/**
+ * Topology.java
+ *
+ * The producer/consumer shape a queue will be used under. Declaring it lets 
+ * create() pick an implementation that only pays for the contention the shape 
+ * can have: SpscQueue needs no atomic read-modify-write at all, MpscQueue needs 
+ * one getAndSet per enqueue and none per dequeue, and the multi-consumer shapes 
+ * fall back to the general VarHandleJDKQueue.
+ *
+ * The declaration is a promise by the caller. Using a queue from more producers 
+ * or consumers than its topology allows corrupts it.
+ *
+ * Key Methods:
+ * - create(): Returns a new QueueImpl suited to this topology.
+ * - singleProducer(): Whether at most one thread enqueues.
+ * - singleConsumer(): Whether at most one thread dequeues.
+ */
+
+public enum Topology
+{
+    SPSC, MPSC, SPMC, MPMC;
+
+    public boolean singleProducer()
+    {
+        return this == SPSC || this == SPMC;
+    }
+
+    public boolean singleConsumer()
+    {
+        return this == SPSC || this == MPSC;
+    }
+
+    public <E> QueueImpl<E> create()
+    {
+        switch (this)
+        {
+            case SPSC:
+                return new SpscQueue<E>();
+            case MPSC:
+                return new MpscQueue<E>();
+            default:
+                return new VarHandleJDKQueue<E>();
+        }
+    }
+}
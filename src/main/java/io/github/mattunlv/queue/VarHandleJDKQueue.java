@@ -0,0 +1,174 @@
+package io.github.mattunlv.queue;
+
+/**
+ * VarHandleJDKQueue.java
+ * 
+ * This class implements the ConcurrentLinkedQueue-style algorithm of 
+ * StructuredJDKQueue over VarHandleNode<E> and VarHandleTestQueue. Every node is a 
+ * single object with volatile fields, so an enqueue allocates one object instead 
+ * of three.
+ * 
+ * Memory ordering:
+ * - The new node is initialised with plain writes and published by the CAS on 
+ *   pointer->next.
+ * - next pointers are read with getAcquire while walking the list.
+ * - Items are claimed by a CAS on the node value, as in StructuredJDKQueue.
+ * - The self-link written to a node removed by updateHead uses setRelease, since 
+ *   it is only a hint that tells other threads to restart from the head.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the VarHandleTestQueue this implementation operates on.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the first unclaimed node and the last node.
+ * - peek(TestQueue<E> Q): Returns the first unclaimed element without removing 
+ *   it. isEmpty is peek(Q) == null.
+ * - updateHead(VarHandleTestQueue<E> Q, VarHandleNode<E> head, VarHandleNode<E> pointer): 
+ *   Updates the head of the queue to maintain consistency during dequeue 
+ *   operations.
+ * 
+ * Dependencies:
+ * - VarHandleTestQueue: Represents the queue structure.
+ * - VarHandleNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class VarHandleJDKQueue<E> implements SizedQueueImpl<E>
+{
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value) 
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        VarHandleNode<E> node = new VarHandleNode<E>(value);
+        VarHandleNode<E> tail = q.tailNode;
+        VarHandleNode<E> pointer = tail;
+        while (true)
+        {
+            VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer);
+            if (next == null)
+            {
+                node.seq = pointer.seq + 1;
+                if (VarHandleNode.NEXT.compareAndSet(pointer, null, node))
+                {
+                    if (pointer != tail)
+                        VarHandleTestQueue.TAIL.compareAndSet(q, tail, node);
+                    return;
+                }
+            }
+            else if (pointer == next)
+                pointer = (tail != (tail = q.tailNode)) ? tail : q.headNode;
+            else
+                pointer = (pointer != tail && tail != (tail = q.tailNode)) ? tail : next;
+        }
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q) 
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        restartFromHead: while (true)
+        {
+            for (VarHandleNode<E> head = q.headNode, pointer = head, next;; pointer = next)
+            {
+                E item;
+                if ((item = pointer.value) != null && VarHandleNode.VALUE.compareAndSet(pointer, item, null))
+                {
+                    if (pointer != head)
+                        updateHead(q, head, ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) != null) ? next : pointer);
+                    return item;
+                }
+                else if ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) == null)
+                {
+                    updateHead(q, head, pointer);
+                    return null;
+                }
+                else if (pointer == next)
+                {
+                    continue restartFromHead;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "VarHandleJDKQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new VarHandleTestQueue<E>();
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        restartFromHead: while (true)
+        {
+            // Skip the claimed nodes that updateHead has not passed yet. Elements
+            // are claimed in list order, so every node from the first unclaimed
+            // one to the last holds an element.
+            for (VarHandleNode<E> pointer = q.headNode, next;; pointer = next)
+            {
+                if (pointer.value != null)
+                    return Math.max(0, last(q, pointer).seq - pointer.seq + 1);
+                else if ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) == null)
+                    return 0;
+                else if (pointer == next)
+                    continue restartFromHead;
+            }
+        }
+    }
+
+    // Follows next pointers from the tail to the last node. The tail may be
+    // behind first, or on a removed node, so fall back to first or the head then.
+    VarHandleNode<E> last(VarHandleTestQueue<E> q, VarHandleNode<E> first)
+    {
+        VarHandleNode<E> pointer = q.tailNode;
+        if (pointer.seq < first.seq)
+            pointer = first;
+        for (VarHandleNode<E> next; (next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) != null; pointer = next)
+        {
+            if (pointer == next)
+            {
+                next = q.headNode;
+                if (next == pointer)
+                    return pointer;
+            }
+        }
+        return pointer;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        restartFromHead: while (true)
+        {
+            for (VarHandleNode<E> pointer = q.headNode, next;; pointer = next)
+            {
+                E item;
+                if ((item = pointer.value) != null)
+                    return item;
+                else if ((next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(pointer)) == null)
+                    return null;
+                else if (pointer == next)
+                    continue restartFromHead;
+            }
+        }
+    }
+
+    void updateHead(VarHandleTestQueue<E> Q, VarHandleNode<E> head, VarHandleNode<E> pointer)
+    {
+        if (head != pointer && VarHandleTestQueue.HEAD.compareAndSet(Q, head, pointer))
+            VarHandleNode.NEXT.setRelease(head, head);
+    }
+}
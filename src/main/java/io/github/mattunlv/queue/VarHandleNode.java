@@ -0,0 +1,50 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * VarHandleNode.java
+ *
+ * A queue node whose value and next pointer are plain volatile fields accessed
+ * through VarHandles, rather than two separate AtomicReference objects as in
+ * Node. Creating a node is a single allocation and following next is a single
+ * dereference.
+ *
+ * The constructor writes the value with a plain store, and the queues that 
+ * support size() set seq the same way. This is safe because a node only becomes 
+ * visible to other threads through the CAS that links it into the queue, which 
+ * has release semantics.
+ */
+
+public class VarHandleNode<E>
+{
+    public volatile E value;
+    public volatile VarHandleNode<E> next;
+    // Position of the node in the queue (the initial dummy is 0), as in Node.
+    // A plain field, published with the value by the CAS that links the node.
+    public long seq;
+
+    public static final VarHandle VALUE;
+    public static final VarHandle NEXT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(VarHandleNode.class, "value", Object.class);
+            NEXT = lookup.findVarHandle(VarHandleNode.class, "next", VarHandleNode.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public VarHandleNode(E value)
+    {
+        // node->value = value (plain write, published by the linking CAS)
+        VALUE.set(this, value);
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.mattunlv.queue;
+
+/**
+ * VarHandlePaperQueue.java
+ * 
+ * This class implements Michael and Scott's lock-free queue, following the same 
+ * structure as StructuredPaperQueue, over VarHandleNode<E> and VarHandleTestQueue. 
+ * Every node is a single object with volatile fields, so an enqueue allocates 
+ * one object instead of three.
+ * 
+ * Memory ordering:
+ * - The new node is initialised with plain writes and published by the CAS on 
+ *   tail.ptr->next.
+ * - next pointers are read with getAcquire, which is enough to see the value 
+ *   written before the node was linked.
+ * - Q->head and Q->tail are read as volatile and updated by CAS, as in the 
+ *   paper.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue using 
+ *   a lock-free algorithm.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element from the queue using 
+ *   a lock-free algorithm.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the VarHandleTestQueue this implementation operates on.
+ * - size(TestQueue<E> Q): Returns the number of elements from the sequence 
+ *   numbers of the head and last nodes.
+ * - isEmpty(TestQueue<E> Q), peek(TestQueue<E> Q): Look at the node after the 
+ *   head without removing it.
+ * 
+ * Dependencies:
+ * - VarHandleTestQueue: Represents the queue structure.
+ * - VarHandleNode: Represents a node in the queue.
+ */
+
+@SuppressWarnings("unchecked")
+public class VarHandlePaperQueue<E> implements SizedQueueImpl<E>
+{
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // node = new node, node->value = value, node->next.ptr = null
+        VarHandleNode<E> node = new VarHandleNode<E>(value);
+        VarHandleNode<E> tail;
+        VarHandleNode<E> next;
+        while (true)
+        {
+            // tail = Q->tail
+            tail = q.tailNode;
+            // next = tail.ptr->next
+            next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(tail);
+            // if tail == Q->tail
+            if (tail == q.tailNode)
+            {
+                // if next.ptr == null
+                if (next == null)
+                {
+                    // node->seq = tail.ptr->seq + 1
+                    node.seq = tail.seq + 1;
+                    // if CAS(&tail.ptr->next, next, node)
+                    if (VarHandleNode.NEXT.compareAndSet(tail, next, node))
+                        break;
+                }
+                else
+                {
+                    // CAS(Q->tail, tail, next.ptr)
+                    VarHandleTestQueue.TAIL.compareAndSet(q, tail, next);
+                }
+            }
+        }
+        // CAS(&Q->tail, tail, node)
+        VarHandleTestQueue.TAIL.compareAndSet(q, tail, node);
+    }
+
+    @Override
+    public E dequeue(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        E value = null;
+        while (true)
+        {
+            // head = Q->head
+            VarHandleNode<E> head = q.headNode;
+            // tail = Q->tail
+            VarHandleNode<E> tail = q.tailNode;
+            // next = head->next
+            VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head);
+            // if head == Q->head
+            if (head == q.headNode)
+            {
+                // if head.ptr == tail.ptr
+                if (head == tail)
+                {
+                    // if next.ptr = null
+                    if (next == null)
+                        return null;
+                    // CAS(&Q->Tail, tail, next.ptr)
+                    VarHandleTestQueue.TAIL.compareAndSet(q, tail, next);
+                }
+                else
+                {
+                    // pvalue = next.ptr->value (never changes once linked)
+                    value = (E)VarHandleNode.VALUE.get(next);
+                    if (VarHandleTestQueue.HEAD.compareAndSet(q, head, next))
+                        break;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return "VarHandlePaperQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new VarHandleTestQueue<E>();
+    }
+
+    @Override
+    public long size(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // Read the head first: the tail is never behind it
+        VarHandleNode<E> head = q.headNode;
+        VarHandleNode<E> tail = q.tailNode;
+        // The tail may lag one node behind the last
+        VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(tail);
+        VarHandleNode<E> last = (next != null) ? next : tail;
+        return Math.max(0, last.seq - head.seq);
+    }
+
+    @Override
+    public boolean isEmpty(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        // A node whose next is null is the last, and only the head can be both
+        return VarHandleNode.NEXT.getAcquire(q.headNode) == null;
+    }
+
+    @Override
+    public E peek(TestQueue<E> Q)
+    {
+        VarHandleTestQueue<E> q = (VarHandleTestQueue<E>)Q;
+        while (true)
+        {
+            // head = Q->head
+            VarHandleNode<E> head = q.headNode;
+            // next = head->next
+            VarHandleNode<E> next = (VarHandleNode<E>)VarHandleNode.NEXT.getAcquire(head);
+            // if next.ptr = null
+            if (next == null)
+                return null;
+            // pvalue = next.ptr->value
+            E value = (E)VarHandleNode.VALUE.get(next);
+            // if head == Q->head, the value was first while it was read
+            if (head == q.headNode)
+                return value;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * VarHandleTestQueue.java
+ *
+ * The queue structure used by the VarHandle variants of the algorithms. The head
+ * and tail are volatile fields over VarHandleNode, updated through the HEAD and
+ * TAIL VarHandles.
+ */
+
+public class VarHandleTestQueue<E> extends TestQueue<E>
+{
+    public volatile VarHandleNode<E> headNode;
+    public volatile VarHandleNode<E> tailNode;
+
+    public static final VarHandle HEAD;
+    public static final VarHandle TAIL;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(VarHandleTestQueue.class, "headNode", VarHandleNode.class);
+            TAIL = lookup.findVarHandle(VarHandleTestQueue.class, "tailNode", VarHandleNode.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public VarHandleTestQueue()
+    {
+        super(null, null);
+        // Node = new node (node->next.ptr is null on construction)
+        VarHandleNode<E> node = new VarHandleNode<E>(null);
+        // Q->head = Q->tail = node
+        this.headNode = node;
+        this.tailNode = node;
+    }
+}
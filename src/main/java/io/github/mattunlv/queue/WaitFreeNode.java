@@ -0,0 +1,49 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * WaitFreeNode.java
+ *
+ * A queue node for WaitFreeQueue. As well as the value and next pointer it 
+ * records which thread enqueued it (enqTid) and which thread's dequeue has 
+ * claimed it as the head to remove (deqTid). Helpers use these to finish the 
+ * right thread's operation. enqTid is NO_TID for a node enqueued on the fast 
+ * path. deqTid starts as NO_TID and is set once, to the slow-path dequeuer's id 
+ * or FAST_TID.
+ */
+
+public class WaitFreeNode<E>
+{
+    public static final int NO_TID = -1;
+    public static final int FAST_TID = -2;
+
+    public final E value;
+    public final int enqTid;
+    public volatile WaitFreeNode<E> next;
+    public volatile int deqTid = NO_TID;
+
+    public static final VarHandle NEXT;
+    public static final VarHandle DEQ_TID;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NEXT = lookup.findVarHandle(WaitFreeNode.class, "next", WaitFreeNode.class);
+            DEQ_TID = lookup.findVarHandle(WaitFreeNode.class, "deqTid", int.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public WaitFreeNode(E value, int enqTid)
+    {
+        this.value = value;
+        this.enqTid = enqTid;
+    }
+}
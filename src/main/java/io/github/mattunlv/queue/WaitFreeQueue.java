@@ -0,0 +1,390 @@
+package io.github.mattunlv.queue;
+
+/**
+ * WaitFreeQueue.java
+ * 
+ * This class implements Kogan and Petrank's wait-free queue, in the fast-path 
+ * slow-path form of their later paper. In the lock-free queues one thread can 
+ * keep losing its CAS to others and retry without bound. Here every operation 
+ * completes in a bounded number of its own steps, whatever other threads do.
+ * 
+ * An operation first tries the Michael and Scott algorithm, at most MAX_FAILURES 
+ * times. If that keeps failing it switches to the slow path. It takes a phase 
+ * number, announces itself in the state array, and helps every pending 
+ * operation with a phase no later than its own, including itself. Once it is 
+ * announced, every other slow-path operation with a later phase helps it too. 
+ * Each fast-path operation checks one thread's announcement every 
+ * HELPING_DELAY operations, round robin, and helps it if it is pending. So a 
+ * slow-path operation is finished within a bounded number of other threads' 
+ * operations, even if its own thread is descheduled.
+ * 
+ * Helping needs a way to finish another thread's operation exactly once. A node 
+ * records the thread that enqueued it, so whichever thread moves the tail past 
+ * it can mark that enqueue done. A dequeue claims the head by CASing its deqTid, 
+ * and whichever thread moves the head past it marks that dequeue done. Fast-path 
+ * dequeues claim the head in the same way (with FAST_TID), so a fast and a slow 
+ * dequeue can never both take the same element.
+ * 
+ * Phases come from a shared counter rather than the paper's scan of the state 
+ * array. This costs one getAndAdd per slow-path operation and keeps the phases 
+ * increasing, which is all the helping order needs. 
+ * 
+ * Each thread using a queue needs one of its maxThreads ids, so at most 
+ * maxThreads threads can use a queue at the same time, and an operation by one 
+ * more throws IllegalStateException. The ids of threads that have exited are 
+ * reused, so there is no limit on the threads over the queue's life (see 
+ * WaitFreeTestQueue). The state array is scanned by every slow-path operation, 
+ * so maxThreads should be sized to the threads that will actually share a 
+ * queue.
+ * 
+ * The matching CSP model is PaperCSPFiles/queue-waitfree.csp.
+ * 
+ * Key Methods:
+ * - enqueue(TestQueue<E> Q, E value): Adds an element to the queue in a bounded 
+ *   number of steps.
+ * - dequeue(TestQueue<E> Q): Removes and returns an element, or null if the queue 
+ *   is empty, in a bounded number of steps.
+ * - getImplName(): Returns the name of the implementation.
+ * - newQueue(): Creates the WaitFreeTestQueue this implementation operates on.
+ * 
+ * Dependencies:
+ * - WaitFreeTestQueue: Represents the queue structure and its state array.
+ * - WaitFreeNode: Represents a node in the queue.
+ */
+
+public class WaitFreeQueue<E> implements QueueImpl<E>
+{
+    // Fast-path attempts before an operation takes the slow path
+    static final int MAX_FAILURES = 8;
+    // Fast-path operations between checks for a pending slow-path operation
+    static final int HELPING_DELAY = 4;
+    static final int DEFAULT_MAX_THREADS = 128;
+    // Returned by tryFastDequeue when the attempt failed
+    static final Object RETRY = new Object();
+
+    final int maxThreads;
+    final int maxFailures;
+
+    public WaitFreeQueue()
+    {
+        this(DEFAULT_MAX_THREADS);
+    }
+
+    public WaitFreeQueue(int maxThreads)
+    {
+        this(maxThreads, MAX_FAILURES);
+    }
+
+    // maxFailures = 0 sends every operation down the slow path, for testing
+    WaitFreeQueue(int maxThreads, int maxFailures)
+    {
+        if (maxThreads < 1)
+            throw new IllegalArgumentException("maxThreads must be at least 1: " + maxThreads);
+        this.maxThreads = maxThreads;
+        this.maxFailures = maxFailures;
+    }
+
+    @Override
+    public void enqueue(TestQueue<E> Q, E value)
+    {
+        WaitFreeTestQueue<E> q = (WaitFreeTestQueue<E>)Q;
+        WaitFreeTestQueue.Local local = q.local();
+        helpIfNeeded(q, local);
+        WaitFreeNode<E> node = new WaitFreeNode<E>(value, WaitFreeNode.NO_TID);
+        for (int i = 0; i < maxFailures; ++i)
+        {
+            if (tryFastEnqueue(q, node))
+                return;
+        }
+        // phase = maxPhase() + 1
+        long phase = (long)WaitFreeTestQueue.PHASE.getAndAdd(q, 1L);
+        // state[tid] = new OpDesc(phase, true, true, new Node(value, tid))
+        WaitFreeTestQueue.STATE.setVolatile(q.state, local.tid, new WaitFreeTestQueue.OpDesc<E>(phase, true, true, new WaitFreeNode<E>(value, local.tid)));
+        // help(phase)
+        help(q, phase);
+        // help_finish_enq()
+        helpFinishEnqueue(q);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E dequeue(TestQueue<E> Q)
+    {
+        WaitFreeTestQueue<E> q = (WaitFreeTestQueue<E>)Q;
+        WaitFreeTestQueue.Local local = q.local();
+        helpIfNeeded(q, local);
+        for (int i = 0; i < maxFailures; ++i)
+        {
+            Object value = tryFastDequeue(q);
+            if (value != RETRY)
+                return (E)value;
+        }
+        // phase = maxPhase() + 1
+        long phase = (long)WaitFreeTestQueue.PHASE.getAndAdd(q, 1L);
+        // state[tid] = new OpDesc(phase, true, false, null)
+        WaitFreeTestQueue.STATE.setVolatile(q.state, local.tid, new WaitFreeTestQueue.OpDesc<E>(phase, true, false, null));
+        // help(phase)
+        help(q, phase);
+        // help_finish_deq()
+        helpFinishDequeue(q);
+        // node = state[tid].node
+        WaitFreeNode<E> node = q.state(local.tid).node;
+        // if node == null, the queue was empty
+        if (node == null)
+            return null;
+        // return node.next.value
+        return node.next.value;
+    }
+
+    @Override
+    public String getImplName() 
+    {
+        return (maxFailures == 0) ? "WaitFreeSlowPathQueue" : "WaitFreeQueue";
+    }
+
+    @Override
+    public TestQueue<E> newQueue()
+    {
+        return new WaitFreeTestQueue<E>(maxThreads);
+    }
+
+    // One attempt of the Michael and Scott enqueue
+    boolean tryFastEnqueue(WaitFreeTestQueue<E> q, WaitFreeNode<E> node)
+    {
+        // last = Q->tail
+        WaitFreeNode<E> last = q.tailNode;
+        // next = last->next
+        WaitFreeNode<E> next = last.next;
+        // if last == Q->tail
+        if (last == q.tailNode)
+        {
+            // if next == null
+            if (next == null)
+            {
+                // if CAS(&last->next, null, node)
+                if (WaitFreeNode.NEXT.compareAndSet(last, null, node))
+                {
+                    // CAS(&Q->tail, last, node)
+                    WaitFreeTestQueue.TAIL.compareAndSet(q, last, node);
+                    return true;
+                }
+            }
+            else
+                // The next node may be a slow-path enqueue that must be marked done
+                helpFinishEnqueue(q);
+        }
+        return false;
+    }
+
+    // One attempt of the Michael and Scott dequeue, claiming the head through deqTid
+    Object tryFastDequeue(WaitFreeTestQueue<E> q)
+    {
+        // first = Q->head
+        WaitFreeNode<E> first = q.headNode;
+        // last = Q->tail
+        WaitFreeNode<E> last = q.tailNode;
+        // next = first->next
+        WaitFreeNode<E> next = first.next;
+        // if first == Q->head
+        if (first == q.headNode)
+        {
+            // if first == last
+            if (first == last)
+            {
+                // if next == null
+                if (next == null)
+                    return null;
+                helpFinishEnqueue(q);
+            }
+            else
+            {
+                // if CAS(&first->deqTid, -1, FAST)
+                if (first.deqTid == WaitFreeNode.NO_TID && WaitFreeNode.DEQ_TID.compareAndSet(first, WaitFreeNode.NO_TID, WaitFreeNode.FAST_TID))
+                {
+                    // CAS(&Q->head, first, next)
+                    WaitFreeTestQueue.HEAD.compareAndSet(q, first, next);
+                    return next.value;
+                }
+                // Another dequeue claimed the head: help it move on
+                helpFinishDequeue(q);
+            }
+        }
+        return RETRY;
+    }
+
+    // Every HELPING_DELAY operations, help one thread's pending slow-path operation
+    void helpIfNeeded(WaitFreeTestQueue<E> q, WaitFreeTestQueue.Local local)
+    {
+        if (++local.operations % HELPING_DELAY != 0)
+            return;
+        int tid = local.helpTid;
+        WaitFreeTestQueue.OpDesc<E> desc = q.state(tid);
+        if (desc.pending)
+        {
+            if (desc.enqueue)
+                helpEnqueue(q, tid, desc.phase);
+            else
+                helpDequeue(q, tid, desc.phase);
+        }
+        local.helpTid = (tid + 1) % Math.min(q.threadCount, q.state.length);
+    }
+
+    void help(WaitFreeTestQueue<E> q, long phase)
+    {
+        int threads = Math.min(q.threadCount, q.state.length);
+        for (int i = 0; i < threads; ++i)
+        {
+            WaitFreeTestQueue.OpDesc<E> desc = q.state(i);
+            // if desc.pending && desc.phase <= phase
+            if (desc.pending && desc.phase <= phase)
+            {
+                if (desc.enqueue)
+                    helpEnqueue(q, i, phase);
+                else
+                    helpDequeue(q, i, phase);
+            }
+        }
+    }
+
+    boolean isStillPending(WaitFreeTestQueue<E> q, int tid, long phase)
+    {
+        WaitFreeTestQueue.OpDesc<E> desc = q.state(tid);
+        return desc.pending && desc.phase <= phase;
+    }
+
+    void helpEnqueue(WaitFreeTestQueue<E> q, int tid, long phase)
+    {
+        while (isStillPending(q, tid, phase))
+        {
+            // last = Q->tail
+            WaitFreeNode<E> last = q.tailNode;
+            // next = last->next
+            WaitFreeNode<E> next = last.next;
+            // if last == Q->tail
+            if (last == q.tailNode)
+            {
+                // if next == null
+                if (next == null)
+                {
+                    // if isStillPending(tid, phase)
+                    if (isStillPending(q, tid, phase))
+                    {
+                        // if CAS(&last->next, next, state[tid].node)
+                        if (WaitFreeNode.NEXT.compareAndSet(last, next, q.state(tid).node))
+                        {
+                            helpFinishEnqueue(q);
+                            return;
+                        }
+                    }
+                }
+                else
+                    helpFinishEnqueue(q);
+            }
+        }
+    }
+
+    void helpFinishEnqueue(WaitFreeTestQueue<E> q)
+    {
+        // last = Q->tail
+        WaitFreeNode<E> last = q.tailNode;
+        // next = last->next
+        WaitFreeNode<E> next = last.next;
+        if (next != null)
+        {
+            // tid = next->enqTid, NO_TID for a fast-path node
+            int tid = next.enqTid;
+            if (tid != WaitFreeNode.NO_TID)
+            {
+                // curDesc = state[tid]
+                WaitFreeTestQueue.OpDesc<E> cur = q.state(tid);
+                // if last == Q->tail && state[tid].node == next
+                if (last == q.tailNode && q.state(tid).node == next)
+                {
+                    // CAS(&state[tid], curDesc, new OpDesc(curDesc.phase, false, true, next))
+                    q.casState(tid, cur, new WaitFreeTestQueue.OpDesc<E>(cur.phase, false, true, next));
+                }
+            }
+            // CAS(&Q->tail, last, next)
+            WaitFreeTestQueue.TAIL.compareAndSet(q, last, next);
+        }
+    }
+
+    void helpDequeue(WaitFreeTestQueue<E> q, int tid, long phase)
+    {
+        while (isStillPending(q, tid, phase))
+        {
+            // first = Q->head
+            WaitFreeNode<E> first = q.headNode;
+            // last = Q->tail
+            WaitFreeNode<E> last = q.tailNode;
+            // next = first->next
+            WaitFreeNode<E> next = first.next;
+            // if first == Q->head
+            if (first == q.headNode)
+            {
+                // if first == last
+                if (first == last)
+                {
+                    // if next == null
+                    if (next == null)
+                    {
+                        // curDesc = state[tid]
+                        WaitFreeTestQueue.OpDesc<E> cur = q.state(tid);
+                        // if last == Q->tail && isStillPending(tid, phase)
+                        if (last == q.tailNode && isStillPending(q, tid, phase))
+                        {
+                            // CAS(&state[tid], curDesc, new OpDesc(curDesc.phase, false, false, null))
+                            q.casState(tid, cur, new WaitFreeTestQueue.OpDesc<E>(cur.phase, false, false, null));
+                        }
+                    }
+                    else
+                        helpFinishEnqueue(q);
+                }
+                else
+                {
+                    // curDesc = state[tid]
+                    WaitFreeTestQueue.OpDesc<E> cur = q.state(tid);
+                    // node = curDesc.node
+                    WaitFreeNode<E> node = cur.node;
+                    // if !isStillPending(tid, phase), break
+                    if (!isStillPending(q, tid, phase))
+                        break;
+                    // if first == Q->head && node != first
+                    if (first == q.headNode && node != first)
+                    {
+                        // if !CAS(&state[tid], curDesc, new OpDesc(curDesc.phase, true, false, first)), continue
+                        if (!q.casState(tid, cur, new WaitFreeTestQueue.OpDesc<E>(cur.phase, true, false, first)))
+                            continue;
+                    }
+                    // CAS(&first->deqTid, -1, tid)
+                    WaitFreeNode.DEQ_TID.compareAndSet(first, WaitFreeNode.NO_TID, tid);
+                    helpFinishDequeue(q);
+                }
+            }
+        }
+    }
+
+    void helpFinishDequeue(WaitFreeTestQueue<E> q)
+    {
+        // first = Q->head
+        WaitFreeNode<E> first = q.headNode;
+        // next = first->next
+        WaitFreeNode<E> next = first.next;
+        // tid = first->deqTid
+        int tid = first.deqTid;
+        if (tid != WaitFreeNode.NO_TID)
+        {
+            // curDesc = state[tid], none for a fast-path claim
+            WaitFreeTestQueue.OpDesc<E> cur = (tid == WaitFreeNode.FAST_TID) ? null : q.state(tid);
+            // if first == Q->head && next != null
+            if (first == q.headNode && next != null)
+            {
+                // CAS(&state[tid], curDesc, new OpDesc(curDesc.phase, false, false, curDesc.node))
+                if (cur != null)
+                    q.casState(tid, cur, new WaitFreeTestQueue.OpDesc<E>(cur.phase, false, false, cur.node));
+                // CAS(&Q->head, first, next)
+                WaitFreeTestQueue.HEAD.compareAndSet(q, first, next);
+            }
+        }
+    }
+}
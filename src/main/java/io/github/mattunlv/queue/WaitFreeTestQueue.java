@@ -0,0 +1,144 @@
+package io.github.mattunlv.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+
+/**
+ * WaitFreeTestQueue.java
+ *
+ * The queue structure used by WaitFreeQueue: the head and tail of a linked list 
+ * of WaitFreeNodes, and Kogan and Petrank's state array. It holds one operation 
+ * descriptor (OpDesc) per thread, describing that thread's slow-path operation 
+ * to any thread that helps it. Descriptors are immutable and replaced by CAS.
+ *
+ * Threads are given ids from 0 to maxThreads - 1 the first time they use the 
+ * queue, and keep them in a ThreadLocal. Once all ids have been handed out, a 
+ * new thread takes over the id of a thread that has exited with no operation 
+ * pending. To the other threads this looks the same as the exited thread 
+ * carrying on with more operations, which the algorithm already allows. So at 
+ * most maxThreads threads can use a queue at once, but any number can use it 
+ * over its life.
+ */
+
+public class WaitFreeTestQueue<E> extends TestQueue<E>
+{
+    public static final class OpDesc<E>
+    {
+        public final long phase;
+        public final boolean pending;
+        public final boolean enqueue;
+        public final WaitFreeNode<E> node;
+
+        public OpDesc(long phase, boolean pending, boolean enqueue, WaitFreeNode<E> node)
+        {
+            this.phase = phase;
+            this.pending = pending;
+            this.enqueue = enqueue;
+            this.node = node;
+        }
+    }
+
+    // Per-thread id and the round-robin position for helping on the fast path
+    static final class Local
+    {
+        final int tid;
+        int operations;
+        int helpTid;
+
+        Local(int tid)
+        {
+            this.tid = tid;
+            this.helpTid = tid;
+        }
+    }
+
+    public final Object[] state;
+    // The thread holding each id, null until it is recorded
+    final WeakReference<?>[] owners;
+    public volatile WaitFreeNode<E> headNode;
+    public volatile WaitFreeNode<E> tailNode;
+    public volatile long phase;
+    volatile int threadCount;
+    final ThreadLocal<Local> local = ThreadLocal.withInitial(this::register);
+
+    public static final VarHandle STATE = MethodHandles.arrayElementVarHandle(Object[].class);
+    static final VarHandle OWNERS = MethodHandles.arrayElementVarHandle(WeakReference[].class);
+    public static final VarHandle HEAD;
+    public static final VarHandle TAIL;
+    public static final VarHandle PHASE;
+    static final VarHandle THREAD_COUNT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(WaitFreeTestQueue.class, "headNode", WaitFreeNode.class);
+            TAIL = lookup.findVarHandle(WaitFreeTestQueue.class, "tailNode", WaitFreeNode.class);
+            PHASE = lookup.findVarHandle(WaitFreeTestQueue.class, "phase", long.class);
+            THREAD_COUNT = lookup.findVarHandle(WaitFreeTestQueue.class, "threadCount", int.class);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public WaitFreeTestQueue(int maxThreads)
+    {
+        super(null, null);
+        // sentinel = new Node(null, -1)
+        WaitFreeNode<E> sentinel = new WaitFreeNode<E>(null, WaitFreeNode.NO_TID);
+        this.headNode = sentinel;
+        this.tailNode = sentinel;
+        this.state = new Object[maxThreads];
+        this.owners = new WeakReference<?>[maxThreads];
+        // state[i] = new OpDesc(-1, false, true, null)
+        OpDesc<E> idle = new OpDesc<E>(-1, false, true, null);
+        for (int i = 0; i < maxThreads; ++i)
+            this.state[i] = idle;
+    }
+
+    @SuppressWarnings("unchecked")
+    public OpDesc<E> state(int tid)
+    {
+        return (OpDesc<E>)STATE.getVolatile(state, tid);
+    }
+
+    public boolean casState(int tid, OpDesc<E> expected, OpDesc<E> update)
+    {
+        return STATE.compareAndSet(state, tid, expected, update);
+    }
+
+    Local local()
+    {
+        return local.get();
+    }
+
+    Local register()
+    {
+        WeakReference<Thread> owner = new WeakReference<Thread>(Thread.currentThread());
+        // Take a fresh id while there are any
+        int count;
+        while ((count = threadCount) < state.length)
+        {
+            if (THREAD_COUNT.compareAndSet(this, count, count + 1))
+            {
+                OWNERS.setRelease(owners, count, owner);
+                return new Local(count);
+            }
+        }
+        // Otherwise take over the id of a thread that has exited between operations
+        for (int tid = 0; tid < state.length; ++tid)
+        {
+            WeakReference<?> previous = (WeakReference<?>)OWNERS.getAcquire(owners, tid);
+            if (previous == null)
+                continue;
+            Thread thread = (Thread)previous.get();
+            if ((thread == null || !thread.isAlive()) && !state(tid).pending && OWNERS.compareAndSet(owners, tid, previous, owner))
+                return new Local(tid);
+        }
+        throw new IllegalStateException("More than " + state.length + " live threads are using this queue");
+    }
+}
@@ -0,0 +1,995 @@
+package io.github.mattunlv.queue;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+/**
+ * QueueStressTests.java
+ *
+ * jcstress tests checking that each QueueImpl is linearizable for the three
+ * smallest racing histories: two enqueues, an enqueue against a dequeue, and two
+ * dequeues. A null dequeue is reported as 0. The single-consumer queues are
+ * left out of the two-dequeue history and SpscQueue out of the two-enqueue one,
+ * since their topology does not allow those races.
+ *
+ * jcstress needs the actors declared on every concrete test class, so each
+ * history is repeated once per implementation with the actors delegating to a
+ * shared Harness.
+ *
+ * Example:
+ * - ./gradlew jcstress --args='-t QueueStressTests -m quick'
+ */
+
+public class QueueStressTests
+{
+    static class Harness
+    {
+        final QueueImpl<Integer> impl;
+        final TestQueue<Integer> queue;
+
+        Harness(QueueImpl<Integer> impl, Integer... initial)
+        {
+            this.impl = impl;
+            this.queue = impl.newQueue();
+            for (Integer value : initial)
+                impl.enqueue(queue, value);
+        }
+
+        void enqueue(int value)
+        {
+            impl.enqueue(queue, value);
+        }
+
+        int dequeue()
+        {
+            Integer n = impl.dequeue(queue);
+            return (n == null) ? 0 : n.intValue();
+        }
+    }
+
+    // Two enqueues: both values must come out, in either order
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class StructuredPaperEnqueueEnqueue
+    {
+        final Harness h = new Harness(new StructuredPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class CSPFriendlyPaperEnqueueEnqueue
+    {
+        final Harness h = new Harness(new CSPFriendlyPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class StructuredJDKEnqueueEnqueue
+    {
+        final Harness h = new Harness(new StructuredJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class CSPFriendlyJDKEnqueueEnqueue
+    {
+        final Harness h = new Harness(new CSPFriendlyJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class VarHandlePaperEnqueueEnqueue
+    {
+        final Harness h = new Harness(new VarHandlePaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class VarHandleJDKEnqueueEnqueue
+    {
+        final Harness h = new Harness(new VarHandleJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class RingBufferEnqueueEnqueue
+    {
+        final Harness h = new Harness(new RingBufferQueue<Integer>(4));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class PooledPaperEnqueueEnqueue
+    {
+        final Harness h = new Harness(new PooledPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class MpscEnqueueEnqueue
+    {
+        final Harness h = new Harness(Topology.MPSC.<Integer>create());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class StripedEnqueueEnqueue
+    {
+        final Harness h = new Harness(StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), 4));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class EliminationEnqueueEnqueue
+    {
+        final Harness h = new Harness(new EliminationQueueImpl<Integer>(new StructuredPaperQueue<Integer>()));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class OffHeapPaperEnqueueEnqueue
+    {
+        final Harness h = new Harness(new OffHeapPaperQueue<Integer>(RecordCodec.int32()));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class RelaxedPaperEnqueueEnqueue
+    {
+        final Harness h = new Harness(new RelaxedPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class RelaxedJDKEnqueueEnqueue
+    {
+        final Harness h = new Harness(new RelaxedJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class FAAArrayEnqueueEnqueue
+    {
+        final Harness h = new Harness(new FAAArrayQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class FlatCombiningEnqueueEnqueue
+    {
+        final Harness h = new Harness(new FlatCombiningQueueImpl<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class WaitFreeEnqueueEnqueue
+    {
+        final Harness h = new Harness(new WaitFreeQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class WaitFreeSlowPathEnqueueEnqueue
+    {
+        final Harness h = new Harness(new WaitFreeQueue<Integer>(128, 0));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both enqueues linearized")
+    @State
+    public static class DualEnqueueEnqueue
+    {
+        final Harness h = new Harness(new DualQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2() { h.enqueue(2); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r1 = h.dequeue(); r.r2 = h.dequeue(); }
+    }
+
+    // Enqueue racing a dequeue: the value is taken exactly once
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class StructuredPaperEnqueueDequeue
+    {
+        final Harness h = new Harness(new StructuredPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class CSPFriendlyPaperEnqueueDequeue
+    {
+        final Harness h = new Harness(new CSPFriendlyPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class StructuredJDKEnqueueDequeue
+    {
+        final Harness h = new Harness(new StructuredJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class CSPFriendlyJDKEnqueueDequeue
+    {
+        final Harness h = new Harness(new CSPFriendlyJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class VarHandlePaperEnqueueDequeue
+    {
+        final Harness h = new Harness(new VarHandlePaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class VarHandleJDKEnqueueDequeue
+    {
+        final Harness h = new Harness(new VarHandleJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class RingBufferEnqueueDequeue
+    {
+        final Harness h = new Harness(new RingBufferQueue<Integer>(4));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class PooledPaperEnqueueDequeue
+    {
+        final Harness h = new Harness(new PooledPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class SpscEnqueueDequeue
+    {
+        final Harness h = new Harness(Topology.SPSC.<Integer>create());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class MpscEnqueueDequeue
+    {
+        final Harness h = new Harness(Topology.MPSC.<Integer>create());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class StripedEnqueueDequeue
+    {
+        final Harness h = new Harness(StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), 4));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class EliminationEnqueueDequeue
+    {
+        final Harness h = new Harness(new EliminationQueueImpl<Integer>(new StructuredPaperQueue<Integer>()));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class OffHeapPaperEnqueueDequeue
+    {
+        final Harness h = new Harness(new OffHeapPaperQueue<Integer>(RecordCodec.int32()));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class RelaxedPaperEnqueueDequeue
+    {
+        final Harness h = new Harness(new RelaxedPaperQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class RelaxedJDKEnqueueDequeue
+    {
+        final Harness h = new Harness(new RelaxedJDKQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class FAAArrayEnqueueDequeue
+    {
+        final Harness h = new Harness(new FAAArrayQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class FlatCombiningEnqueueDequeue
+    {
+        final Harness h = new Harness(new FlatCombiningQueueImpl<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class WaitFreeEnqueueDequeue
+    {
+        final Harness h = new Harness(new WaitFreeQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class WaitFreeSlowPathEnqueueDequeue
+    {
+        final Harness h = new Harness(new WaitFreeQueue<Integer>(128, 0));
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "Dequeue before enqueue")
+    @Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Enqueue before dequeue")
+    @State
+    public static class DualEnqueueDequeue
+    {
+        final Harness h = new Harness(new DualQueue<Integer>());
+
+        @Actor
+        public void actor1() { h.enqueue(1); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Arbiter
+        public void arbiter(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    // Two dequeues from <1, 2>: each value is taken by exactly one of them
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class StructuredPaperDequeueDequeue
+    {
+        final Harness h = new Harness(new StructuredPaperQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class CSPFriendlyPaperDequeueDequeue
+    {
+        final Harness h = new Harness(new CSPFriendlyPaperQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class StructuredJDKDequeueDequeue
+    {
+        final Harness h = new Harness(new StructuredJDKQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class CSPFriendlyJDKDequeueDequeue
+    {
+        final Harness h = new Harness(new CSPFriendlyJDKQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class VarHandlePaperDequeueDequeue
+    {
+        final Harness h = new Harness(new VarHandlePaperQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class VarHandleJDKDequeueDequeue
+    {
+        final Harness h = new Harness(new VarHandleJDKQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class RingBufferDequeueDequeue
+    {
+        final Harness h = new Harness(new RingBufferQueue<Integer>(4), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class PooledPaperDequeueDequeue
+    {
+        final Harness h = new Harness(new PooledPaperQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class StripedDequeueDequeue
+    {
+        final Harness h = new Harness(StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), 4), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class EliminationDequeueDequeue
+    {
+        final Harness h = new Harness(new EliminationQueueImpl<Integer>(new StructuredPaperQueue<Integer>()), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class OffHeapPaperDequeueDequeue
+    {
+        final Harness h = new Harness(new OffHeapPaperQueue<Integer>(RecordCodec.int32()), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class RelaxedPaperDequeueDequeue
+    {
+        final Harness h = new Harness(new RelaxedPaperQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class RelaxedJDKDequeueDequeue
+    {
+        final Harness h = new Harness(new RelaxedJDKQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class FAAArrayDequeueDequeue
+    {
+        final Harness h = new Harness(new FAAArrayQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class FlatCombiningDequeueDequeue
+    {
+        final Harness h = new Harness(new FlatCombiningQueueImpl<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class WaitFreeDequeueDequeue
+    {
+        final Harness h = new Harness(new WaitFreeQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class WaitFreeSlowPathDequeueDequeue
+    {
+        final Harness h = new Harness(new WaitFreeQueue<Integer>(128, 0), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+
+    @JCStressTest
+    @Outcome(id = {"1, 2", "2, 1"}, expect = Expect.ACCEPTABLE, desc = "Both dequeues linearized")
+    @State
+    public static class DualDequeueDequeue
+    {
+        final Harness h = new Harness(new DualQueue<Integer>(), 1, 2);
+
+        @Actor
+        public void actor1(II_Result r) { r.r1 = h.dequeue(); }
+
+        @Actor
+        public void actor2(II_Result r) { r.r2 = h.dequeue(); }
+    }
+}
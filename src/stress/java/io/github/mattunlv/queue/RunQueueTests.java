@@ -0,0 +1,1139 @@
+package io.github.mattunlv.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class Producer extends Thread
+{
+    TestQueue<Integer> queue;
+    QueueImpl<Integer> impl;
+
+    Producer(TestQueue<Integer> queue, QueueImpl<Integer> impl)
+    {
+        this.queue = queue;
+        this.impl = impl;
+    }
+
+    public void run()
+    {
+        for (int i = 0; i < 10000; ++i)
+        {
+            impl.enqueue(queue, i);
+        }
+    }
+}
+
+class Consumer extends Thread
+{
+    TestQueue<Integer> queue;
+    QueueImpl<Integer> impl;
+
+    Consumer(TestQueue<Integer> queue, QueueImpl<Integer> impl)
+    {
+        this.queue = queue;
+        this.impl = impl;
+    }
+
+    public void run()
+    {
+        for (int i = 0; i < 10000; ++i)
+        {
+            Integer n = null;
+            while (n == null)
+            {
+                n = impl.dequeue(queue);
+            }
+            if (n.intValue() != i)
+            {
+                RunQueueTests.fail(Integer.toString(i));
+                break;
+            }
+        }
+    }
+}
+
+class Worker extends Thread
+{
+    TestQueue<Integer> queue;
+    QueueImpl<Integer> impl;
+    int n;
+
+    Worker(TestQueue<Integer> queue, QueueImpl<Integer> impl, int n)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.n = n;
+    }
+
+    public void run()
+    {
+        for (int i = 0; i < 10000; ++i)
+            impl.enqueue(queue, n + i);
+    }
+}
+
+class Merger extends Thread
+{
+    TestQueue<Integer> queue;
+    QueueImpl<Integer> impl;
+    ConcurrentLinkedQueue<Integer> merge;
+
+    Merger(TestQueue<Integer> queue, QueueImpl<Integer> impl, ConcurrentLinkedQueue<Integer> merge)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.merge = merge;
+    }
+
+    public void run()
+    {
+        for (int i = 0; i < 10000; ++i)
+            merge.add(impl.dequeue(queue));
+    }
+}
+
+class BatchWorker extends Thread
+{
+    TestQueue<Integer> queue;
+    QueueImpl<Integer> impl;
+    int n;
+
+    BatchWorker(TestQueue<Integer> queue, QueueImpl<Integer> impl, int n)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.n = n;
+    }
+
+    public void run()
+    {
+        for (int i = 0; i < 10000; i += 100)
+        {
+            ArrayList<Integer> batch = new ArrayList<Integer>(100);
+            for (int j = 0; j < 100; ++j)
+                batch.add(n + i + j);
+            impl.enqueueAll(queue, batch);
+        }
+    }
+}
+
+class BatchMerger extends Thread
+{
+    TestQueue<Integer> queue;
+    QueueImpl<Integer> impl;
+    ConcurrentLinkedQueue<Integer> merge;
+    AtomicInteger remaining;
+    boolean ordered = true;
+
+    BatchMerger(TestQueue<Integer> queue, QueueImpl<Integer> impl, ConcurrentLinkedQueue<Integer> merge, AtomicInteger remaining)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.merge = merge;
+        this.remaining = remaining;
+    }
+
+    public void run()
+    {
+        // Values from one worker must reach any one merger in the order enqueued
+        int[] last = new int[10];
+        Arrays.fill(last, -1);
+        ArrayList<Integer> batch = new ArrayList<Integer>(64);
+        while (remaining.get() > 0)
+        {
+            batch.clear();
+            int count = impl.drainTo(queue, batch, 64);
+            if (count != batch.size())
+                ordered = false;
+            for (Integer n : batch)
+            {
+                if (n <= last[n / 10000])
+                    ordered = false;
+                last[n / 10000] = n;
+            }
+            merge.addAll(batch);
+            remaining.addAndGet(-count);
+        }
+    }
+}
+
+class BlockingConsumer extends Thread
+{
+    TestQueue<Integer> queue;
+    BlockingQueueImpl<Integer> impl;
+    boolean ordered = true;
+
+    BlockingConsumer(TestQueue<Integer> queue, BlockingQueueImpl<Integer> impl)
+    {
+        this.queue = queue;
+        this.impl = impl;
+    }
+
+    public void run()
+    {
+        try
+        {
+            for (int i = 0; i < 10000; ++i)
+            {
+                Integer n = impl.take(queue);
+                if (n.intValue() != i)
+                {
+                    ordered = false;
+                    break;
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            ordered = false;
+        }
+    }
+}
+
+class LaneWorker extends Thread
+{
+    TestQueue<Integer> queue;
+    LanedPriorityQueueImpl<Integer> impl;
+    int lane;
+
+    LaneWorker(TestQueue<Integer> queue, LanedPriorityQueueImpl<Integer> impl, int lane)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.lane = lane;
+    }
+
+    public void run()
+    {
+        for (int i = 0; i < 10000; ++i)
+            impl.enqueue(queue, lane, lane * 10000 + i);
+    }
+}
+
+class DualTaker extends Thread
+{
+    TestQueue<Integer> queue;
+    DualQueue<Integer> impl;
+    int count;
+    boolean failed = false;
+    boolean interrupted = false;
+
+    DualTaker(TestQueue<Integer> queue, DualQueue<Integer> impl, int count)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.count = count;
+    }
+
+    public void run()
+    {
+        try
+        {
+            for (int i = 0; i < count; ++i)
+            {
+                if (impl.take(queue) != i)
+                {
+                    failed = true;
+                    return;
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            interrupted = true;
+        }
+    }
+}
+
+class DualTransferrer extends Thread
+{
+    TestQueue<Integer> queue;
+    DualQueue<Integer> impl;
+    int count;
+
+    DualTransferrer(TestQueue<Integer> queue, DualQueue<Integer> impl, int count)
+    {
+        this.queue = queue;
+        this.impl = impl;
+        this.count = count;
+    }
+
+    public void run()
+    {
+        try
+        {
+            for (int i = 0; i < count; ++i)
+                impl.transfer(queue, i);
+        }
+        catch (InterruptedException e)
+        {
+            return;
+        }
+    }
+}
+
+// Run in a separate JVM by test10 to enqueue into a mapped queue shared with it
+class MappedProducer
+{
+    public static void main(String[] args) throws Exception
+    {
+        MappedQueue<Integer> impl = new MappedQueue<Integer>(RecordCodec.int32(), Integer.parseInt(args[1]));
+        try (MappedTestQueue<Integer> queue = impl.open(Paths.get(args[0])))
+        {
+            int count = Integer.parseInt(args[2]);
+            for (int i = 0; i < count; ++i)
+                impl.enqueue(queue, i);
+        }
+    }
+}
+
+class IntQueueAdapter implements QueueImpl<Integer>
+{
+    // Runs an IntQueueImpl through the Integer tests by boxing at the edges
+    static class Holder extends TestQueue<Integer>
+    {
+        IntTestQueue queue;
+
+        Holder()
+        {
+            super(null, null);
+        }
+    }
+
+    IntQueueImpl impl;
+
+    IntQueueAdapter(IntQueueImpl impl)
+    {
+        this.impl = impl;
+    }
+
+    public void enqueue(TestQueue<Integer> Q, Integer value)
+    {
+        impl.enqueueInt(((Holder)Q).queue, value);
+    }
+
+    public Integer dequeue(TestQueue<Integer> Q)
+    {
+        int n = impl.dequeueInt(((Holder)Q).queue);
+        return (n == IntQueueImpl.EMPTY) ? null : n;
+    }
+
+    public String getImplName()
+    {
+        return impl.getImplName();
+    }
+
+    public TestQueue<Integer> newQueue()
+    {
+        Holder holder = new Holder();
+        holder.queue = impl.newQueue();
+        return holder;
+    }
+}
+
+public class RunQueueTests 
+{
+    // Every check that goes wrong, including exceptions escaping a test thread
+    static final AtomicInteger failures = new AtomicInteger();
+
+    static void fail(String detail)
+    {
+        failures.incrementAndGet();
+        System.out.println("Error");
+        System.out.println(detail);
+    }
+
+    public static void main(String[] args)
+    {
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) ->
+        {
+            e.printStackTrace();
+            fail(thread.getName() + " threw " + e);
+        });
+        @SuppressWarnings("unchecked")
+        QueueImpl<Integer>[] impls = (QueueImpl<Integer>[])new QueueImpl<?>[30];
+        impls[0] = new StructuredPaperQueue<Integer>();
+        impls[1] = new CSPFriendlyPaperQueue<Integer>();
+        impls[2] = new StructuredJDKQueue<Integer>();
+        impls[3] = new CSPFriendlyJDKQueue<Integer>();
+        impls[4] = new VarHandlePaperQueue<Integer>();
+        impls[5] = new VarHandleJDKQueue<Integer>();
+        impls[6] = new IntQueueAdapter(new IntPaperQueue());
+        impls[7] = new IntQueueAdapter(new IntJDKQueue());
+        impls[8] = new RingBufferQueue<Integer>(1 << 17);
+        impls[9] = new BlockingQueueImpl<Integer>(new StructuredPaperQueue<Integer>());
+        impls[10] = new PaddedQueueImpl<Integer>(new StructuredJDKQueue<Integer>());
+        impls[11] = new PooledPaperQueue<Integer>();
+        impls[12] = StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), 4);
+        impls[13] = new EliminationQueueImpl<Integer>(new StructuredPaperQueue<Integer>());
+        impls[14] = new StructuredPaperQueue<Integer>(BackoffPolicy.exponential(4, 1024));
+        impls[15] = new CSPFriendlyJDKQueue<Integer>(BackoffPolicy.proportional(8, 1024));
+        impls[16] = new LanedPriorityQueueImpl<Integer>(new VarHandleJDKQueue<Integer>(), 4);
+        impls[17] = new MappedQueue<Integer>(RecordCodec.int32(), 1 << 17);
+        impls[18] = new OffHeapPaperQueue<Integer>(RecordCodec.int32());
+        impls[19] = new RelaxedPaperQueue<Integer>();
+        impls[20] = new RelaxedJDKQueue<Integer>();
+        impls[21] = new FAAArrayQueue<Integer>();
+        impls[22] = new FlatCombiningQueueImpl<Integer>();
+        impls[23] = new WaitFreeQueue<Integer>();
+        impls[24] = new WaitFreeQueue<Integer>(128, 0);
+        impls[25] = new DualQueue<Integer>();
+        // Decorators over implementations without size and peek
+        impls[26] = new BlockingQueueImpl<Integer>(new FAAArrayQueue<Integer>());
+        impls[27] = StripedQueueImpl.relaxedFifo(new PooledPaperQueue<Integer>(), 4);
+        impls[28] = new EliminationQueueImpl<Integer>(new FAAArrayQueue<Integer>());
+        impls[29] = new LanedPriorityQueueImpl<Integer>(new PooledPaperQueue<Integer>(), 4);
+        for (QueueImpl<Integer> impl : impls)
+        {
+            test1(impl);
+            test2(impl);
+            test3(impl);
+            test4(impl);
+        }
+        test5(new BlockingQueueImpl<Integer>(new StructuredPaperQueue<Integer>()));
+        test5(new BlockingQueueImpl<Integer>(new StructuredJDKQueue<Integer>()));
+        test5(new BlockingQueueImpl<Integer>(new FAAArrayQueue<Integer>()));
+        // Topology-specific implementations only run the tests their shape allows
+        QueueImpl<Integer> spsc = Topology.SPSC.<Integer>create();
+        test1(spsc);
+        QueueImpl<Integer> mpsc = Topology.MPSC.<Integer>create();
+        test1(mpsc);
+        test2(mpsc);
+        test6(mpsc);
+        // Every implementation that supports size and peek
+        @SuppressWarnings("unchecked")
+        SizedQueueImpl<Integer>[] sized = (SizedQueueImpl<Integer>[])new SizedQueueImpl<?>[17];
+        sized[0] = new StructuredPaperQueue<Integer>();
+        sized[1] = new CSPFriendlyPaperQueue<Integer>();
+        sized[2] = new StructuredJDKQueue<Integer>();
+        sized[3] = new CSPFriendlyJDKQueue<Integer>();
+        sized[4] = new VarHandlePaperQueue<Integer>();
+        sized[5] = new VarHandleJDKQueue<Integer>();
+        sized[6] = new RelaxedPaperQueue<Integer>();
+        sized[7] = new RelaxedJDKQueue<Integer>();
+        sized[8] = new RingBufferQueue<Integer>(1 << 17);
+        sized[9] = new MappedQueue<Integer>(RecordCodec.int32(), 1 << 17);
+        sized[10] = new SizedBlockingQueueImpl<Integer>(new StructuredPaperQueue<Integer>());
+        sized[11] = new SizedPaddedQueueImpl<Integer>(new StructuredJDKQueue<Integer>());
+        sized[12] = new SizedPaddedQueueImpl<Integer>(new CSPFriendlyJDKQueue<Integer>());
+        sized[13] = StripedQueueImpl.relaxedFifo(new VarHandleJDKQueue<Integer>(), 4);
+        sized[14] = new SizedEliminationQueueImpl<Integer>(new StructuredPaperQueue<Integer>());
+        sized[15] = new SizedLanedPriorityQueueImpl<Integer>(new VarHandleJDKQueue<Integer>(), 4);
+        sized[16] = new SizedLanedPriorityQueueImpl<Integer>(new RelaxedPaperQueue<Integer>(), 4);
+        for (SizedQueueImpl<Integer> impl : sized)
+        {
+            test7(impl);
+        }
+        test8(new LanedPriorityQueueImpl<Integer>(new VarHandleJDKQueue<Integer>(), 4));
+        test8(new LanedPriorityQueueImpl<Integer>(new StructuredPaperQueue<Integer>(), 4));
+        test9(new LanedPriorityQueueImpl<Integer>(new VarHandleJDKQueue<Integer>(), new int[] { 3, 1 }));
+        test10(new MappedQueue<Integer>(RecordCodec.int32(), 1024));
+        test11(new DualQueue<Integer>());
+        test12(new MappedQueue<byte[]>(RecordCodec.bytes(8), 4));
+        test13(new FlatCombiningQueueImpl<Integer>());
+        test14(new WaitFreeQueue<Integer>(4));
+        if (failures.get() != 0)
+        {
+            System.out.println(failures.get() + " failures");
+            System.exit(1);
+        }
+    }
+
+    public static void test1(QueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 1");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            Producer p = new Producer(queue, impl);
+            Consumer c = new Consumer(queue, impl);
+            p.start();
+            c.start();
+            p.join();
+            c.join();
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test2(QueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 2");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            Worker[] workers = new Worker[10];
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i] = new Worker(queue, impl, i * 10000);
+                workers[i].start();
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i].join();
+            }
+            ArrayList<Integer> numbers = new ArrayList<Integer>(10 * 10000);
+            for (int i = 0; i < 10 * 10000; ++i)
+            {
+                numbers.add(impl.dequeue(queue));
+            }
+            Collections.sort(numbers);
+            for (int i = 0; i < 10 * 10000; ++i)
+            {
+                if (i != numbers.get(i))
+                {
+                    fail(Integer.toString(i) + " " + Integer.toString(numbers.get(i)));
+                    break;
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test3(QueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 3");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            Worker[] workers = new Worker[10];
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i] = new Worker(queue, impl, i * 10000);
+                workers[i].start();
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i].join();
+            }
+            ConcurrentLinkedQueue<Integer> merge = new ConcurrentLinkedQueue<Integer>();
+            Merger[] mergers = new Merger[10];
+            for (int i = 0; i < 10; ++i)
+            {
+                mergers[i] = new Merger(queue, impl, merge);
+                mergers[i].start();
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                mergers[i].join();
+            }
+            ArrayList<Integer> numbers = new ArrayList<Integer>(merge);
+            Collections.sort(numbers);
+            for (int i = 0; i < 10 * 10000; ++i)
+            {
+                if (i != numbers.get(i))
+                {
+                    fail(Integer.toString(i) + " " + Integer.toString(numbers.get(i)));
+                    break;
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test4(QueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 4");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            AtomicInteger remaining = new AtomicInteger(10 * 10000);
+            ConcurrentLinkedQueue<Integer> merge = new ConcurrentLinkedQueue<Integer>();
+            BatchWorker[] workers = new BatchWorker[10];
+            BatchMerger[] mergers = new BatchMerger[10];
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i] = new BatchWorker(queue, impl, i * 10000);
+                mergers[i] = new BatchMerger(queue, impl, merge, remaining);
+                workers[i].start();
+                mergers[i].start();
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i].join();
+                mergers[i].join();
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                if (!mergers[i].ordered)
+                {
+                    fail("Batch out of order");
+                    break;
+                }
+            }
+            ArrayList<Integer> numbers = new ArrayList<Integer>(merge);
+            Collections.sort(numbers);
+            for (int i = 0; i < 10 * 10000; ++i)
+            {
+                if (i != numbers.get(i))
+                {
+                    fail(Integer.toString(i) + " " + Integer.toString(numbers.get(i)));
+                    break;
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test5(BlockingQueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 5");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            if (impl.poll(queue, 10, TimeUnit.MILLISECONDS) != null)
+            {
+                fail("poll on an empty queue returned a value");
+            }
+            // Start the consumer first so that it parks before anything arrives
+            BlockingConsumer c = new BlockingConsumer(queue, impl);
+            c.start();
+            Thread.sleep(50);
+            Producer p = new Producer(queue, impl);
+            p.start();
+            p.join();
+            c.join();
+            if (!c.ordered)
+            {
+                fail("take returned an element out of order");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test6(QueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 6");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            // Ten producers and this thread as the single consumer, all at once
+            Worker[] workers = new Worker[10];
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i] = new Worker(queue, impl, i * 10000);
+                workers[i].start();
+            }
+            int[] expected = new int[10];
+            for (int count = 0; count < 10 * 10000; ++count)
+            {
+                Integer n = null;
+                while (n == null)
+                    n = impl.dequeue(queue);
+                // Each producer's elements must arrive in the order it enqueued them
+                int producer = n / 10000;
+                if (n % 10000 != expected[producer])
+                {
+                    fail(Integer.toString(expected[producer]) + " " + Integer.toString(n % 10000));
+                    break;
+                }
+                ++expected[producer];
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i].join();
+            }
+            if (impl.dequeue(queue) != null)
+            {
+                fail("queue not empty after all elements dequeued");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test7(SizedQueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 7");
+        TestQueue<Integer> queue = impl.newQueue();
+        // With no other threads running, size, isEmpty and peek are exact
+        if (impl.size(queue) != 0 || !impl.isEmpty(queue) || impl.peek(queue) != null)
+        {
+            fail("new queue not empty");
+            return;
+        }
+        for (int i = 0; i < 100; ++i)
+            impl.enqueue(queue, i);
+        for (int i = 0; i < 100; ++i)
+        {
+            if (impl.size(queue) != 100 - i || impl.isEmpty(queue) || impl.peek(queue) != i)
+            {
+                fail(Integer.toString(i) + " size " + impl.size(queue) + " peek " + impl.peek(queue));
+                return;
+            }
+            if (impl.dequeue(queue) != i)
+            {
+                fail(Integer.toString(i) + " dequeued after peek");
+                return;
+            }
+        }
+        if (impl.size(queue) != 0 || !impl.isEmpty(queue) || impl.peek(queue) != null)
+        {
+            fail("drained queue not empty");
+            return;
+        }
+        try
+        {
+            // Concurrent dequeues can leave claimed nodes behind the head, which
+            // must not be counted once the queue is quiet again
+            Worker[] workers = new Worker[10];
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i] = new Worker(queue, impl, i * 10000);
+                workers[i].start();
+            }
+            for (int i = 0; i < 10; ++i)
+            {
+                workers[i].join();
+            }
+            ConcurrentLinkedQueue<Integer> merge = new ConcurrentLinkedQueue<Integer>();
+            Merger[] mergers = new Merger[4];
+            for (int i = 0; i < 4; ++i)
+            {
+                mergers[i] = new Merger(queue, impl, merge);
+                mergers[i].start();
+            }
+            for (int i = 0; i < 4; ++i)
+            {
+                mergers[i].join();
+            }
+            if (impl.size(queue) != 6 * 10000 || impl.isEmpty(queue) || impl.peek(queue) == null)
+            {
+                fail("size " + impl.size(queue) + " after concurrent dequeues, expected 60000");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test8(LanedPriorityQueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 8");
+        TestQueue<Integer> queue = impl.newQueue();
+        // With no other threads running, lanes come out in priority order
+        for (int i = 0; i < 400; ++i)
+            impl.enqueue(queue, 3 - i % 4, (3 - i % 4) * 10000 + i / 4);
+        for (int i = 0; i < 400; ++i)
+        {
+            Integer n = impl.dequeue(queue);
+            if (n == null || n != (i / 100) * 10000 + i % 100)
+            {
+                fail(Integer.toString(i) + " " + n);
+                return;
+            }
+        }
+        try
+        {
+            // One producer per lane and this thread as the consumer, all at once
+            LaneWorker[] workers = new LaneWorker[4];
+            for (int i = 0; i < 4; ++i)
+            {
+                workers[i] = new LaneWorker(queue, impl, i);
+                workers[i].start();
+            }
+            int[] expected = new int[4];
+            for (int count = 0; count < 4 * 10000; ++count)
+            {
+                Integer n = null;
+                while (n == null)
+                    n = impl.dequeue(queue);
+                // Each lane's elements must arrive in the order they were enqueued
+                int lane = n / 10000;
+                if (n % 10000 != expected[lane])
+                {
+                    fail(Integer.toString(expected[lane]) + " " + Integer.toString(n % 10000));
+                    break;
+                }
+                ++expected[lane];
+            }
+            for (int i = 0; i < 4; ++i)
+            {
+                workers[i].join();
+            }
+            if (impl.dequeue(queue) != null || ((LanedPriorityTestQueue<Integer>)queue).nonEmpty != 0)
+            {
+                fail("queue not empty after all elements dequeued");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test9(LanedPriorityQueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 9");
+        TestQueue<Integer> queue = impl.newQueue();
+        for (int i = 0; i < 100; ++i)
+        {
+            impl.enqueue(queue, 0, i);
+            impl.enqueue(queue, 1, 10000 + i);
+        }
+        // Weights of 3 and 1 serve the low lane once in every four dequeues
+        int low = 0;
+        for (int i = 0; i < 100; ++i)
+        {
+            if (impl.dequeue(queue) >= 10000)
+                ++low;
+        }
+        if (low != 25)
+        {
+            fail("low lane served " + low + " times in 100");
+        }
+    }
+
+    public static void test10(MappedQueue<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 10");
+        try
+        {
+            // A producer in another JVM and this thread as the consumer, sharing
+            // a queue much smaller than the number of elements
+            File file = File.createTempFile("mapped-queue", ".dat");
+            file.deleteOnExit();
+            try (MappedTestQueue<Integer> queue = impl.open(file.toPath()))
+            {
+                String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+                Process producer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    MappedProducer.class.getName(), file.getPath(), Integer.toString(queue.capacity()), "100000")
+                    .inheritIO()
+                    .start();
+                for (int i = 0; i < 100000; ++i)
+                {
+                    Integer n = null;
+                    while (n == null)
+                        n = impl.dequeue(queue);
+                    if (n != i)
+                    {
+                        fail(Integer.toString(i) + " " + Integer.toString(n));
+                        producer.destroy();
+                        return;
+                    }
+                }
+                if (producer.waitFor() != 0)
+                {
+                    fail("producer exited with " + producer.exitValue());
+                }
+                if (impl.dequeue(queue) != null)
+                {
+                    fail("queue not empty after all elements dequeued");
+                }
+                // The header is in the same native order as the positions
+                if ((long)MappedTestQueue.LONGS.get(queue.buffer, MappedTestQueue.CAPACITY_OFFSET) != queue.capacity())
+                {
+                    fail("header not in native byte order");
+                }
+            }
+            // Threads of one JVM opening the same file wait for each other's
+            // file lock rather than throwing OverlappingFileLockException
+            File shared = File.createTempFile("mapped-queue", ".dat");
+            shared.deleteOnExit();
+            Thread[] openers = new Thread[8];
+            for (int i = 0; i < openers.length; ++i)
+            {
+                openers[i] = new Thread(() ->
+                {
+                    for (int j = 0; j < 20; ++j)
+                    {
+                        try (MappedTestQueue<Integer> queue = impl.open(shared.toPath()))
+                        {
+                            impl.enqueue(queue, j);
+                        }
+                        catch (IOException e)
+                        {
+                            fail(e.getMessage());
+                        }
+                    }
+                });
+                openers[i].start();
+            }
+            for (Thread opener : openers)
+                opener.join();
+        }
+        catch (IOException | InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test11(DualQueue<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 11");
+        try
+        {
+            // Every element handed over by transfer to a waiting take
+            TestQueue<Integer> queue = impl.newQueue();
+            DualTaker taker = new DualTaker(queue, impl, 10000);
+            DualTransferrer transferrer = new DualTransferrer(queue, impl, 10000);
+            taker.start();
+            transferrer.start();
+            taker.join();
+            transferrer.join();
+            if (taker.failed || impl.dequeue(queue) != null)
+            {
+                fail("transfer to take out of order or left elements behind");
+                return;
+            }
+            // Reservations by take filled by enqueue
+            taker = new DualTaker(queue, impl, 10000);
+            taker.start();
+            for (int i = 0; i < 10000; ++i)
+                impl.enqueue(queue, i);
+            taker.join();
+            if (taker.failed)
+            {
+                fail("enqueue to take out of order");
+                return;
+            }
+            // transfer does not return until a consumer has the element
+            transferrer = new DualTransferrer(queue, impl, 1);
+            transferrer.start();
+            Thread.sleep(50);
+            if (!transferrer.isAlive())
+            {
+                fail("transfer returned with no consumer");
+                return;
+            }
+            Integer n = null;
+            while (n == null)
+                n = impl.dequeue(queue);
+            transferrer.join();
+            if (n != 0)
+            {
+                fail("transferred " + n);
+                return;
+            }
+            // An interrupted take leaves a cancelled reservation that is skipped
+            taker = new DualTaker(queue, impl, 1);
+            taker.start();
+            Thread.sleep(50);
+            taker.interrupt();
+            taker.join();
+            impl.enqueue(queue, 5);
+            if (!taker.interrupted || impl.dequeue(queue) != 5 || impl.dequeue(queue) != null)
+            {
+                fail("cancelled take not skipped");
+                return;
+            }
+            // Takes interrupted behind a waiting take are unlinked, not left to 
+            // reach the head
+            DualTaker waiting = new DualTaker(queue, impl, 1);
+            waiting.start();
+            for (int i = 0; i < 1000; ++i)
+            {
+                taker = new DualTaker(queue, impl, 1);
+                taker.start();
+                while (taker.getState() != Thread.State.WAITING)
+                    Thread.yield();
+                taker.interrupt();
+                taker.join();
+                if (!taker.interrupted)
+                {
+                    fail("take not interrupted");
+                    return;
+                }
+            }
+            // The waiting take, and at most one cancelled take saved for later
+            int length = 0;
+            DualNode p = ((DualTestQueue<Integer>)queue).headNode.next;
+            while (p != null && p != p.next)
+            {
+                ++length;
+                p = p.next;
+            }
+            if (length > 2)
+            {
+                fail(Integer.toString(length) + " nodes left behind a waiting take");
+                return;
+            }
+            impl.enqueue(queue, 0);
+            waiting.join();
+            if (waiting.failed || impl.dequeue(queue) != null)
+            {
+                fail("waiting take not matched past cancelled takes");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test12(MappedQueue<byte[]> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 12");
+        TestQueue<byte[]> queue = impl.newQueue();
+        // Records the codec rejects must leave no claimed slot behind
+        byte[][] rejected = new byte[][] { new byte[3], null };
+        for (byte[] record : rejected)
+        {
+            try
+            {
+                impl.offer(queue, record);
+                fail("offer accepted a record the codec rejects");
+                return;
+            }
+            catch (IllegalArgumentException | NullPointerException e)
+            {
+                // expected
+            }
+        }
+        // Check before dequeue, which would wait forever on a claimed slot
+        if (impl.size(queue) != 0 || !impl.isEmpty(queue))
+        {
+            fail("rejected record claimed a slot");
+            return;
+        }
+        // The ring wraps several times after the rejections
+        for (int i = 0; i < 10; ++i)
+        {
+            byte[] record = new byte[8];
+            record[0] = (byte)i;
+            impl.enqueue(queue, record);
+            byte[] n = impl.dequeue(queue);
+            if (n == null || n[0] != i)
+            {
+                fail(Integer.toString(i) + " not dequeued after a rejected record");
+                return;
+            }
+        }
+    }
+
+    public static void test13(FlatCombiningQueueImpl<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 13");
+        FlatCombiningTestQueue<Integer> queue = (FlatCombiningTestQueue<Integer>)impl.newQueue();
+        // A null is rejected in the caller and leaves nothing for a combiner to fail on
+        try
+        {
+            impl.enqueue(queue, null);
+            fail("enqueue accepted null");
+            return;
+        }
+        catch (NullPointerException e)
+        {
+            // expected
+        }
+        impl.enqueue(queue, -1);
+        if (impl.dequeue(queue) != -1)
+        {
+            fail("queue unusable after a rejected null");
+            return;
+        }
+        try
+        {
+            // More short-lived threads than there are records, one after another
+            for (int i = 0; i < 2 * FlatCombiningTestQueue.MAX_RECORDS; ++i)
+            {
+                Worker worker = new Worker(queue, impl, i * 10000);
+                worker.start();
+                worker.join();
+            }
+            // Enough combines for the records of the exited threads to age out
+            for (int i = 0; i < 2 * FlatCombiningTestQueue.MAX_RECORDS * 10000; ++i)
+            {
+                if (impl.dequeue(queue) == null)
+                {
+                    fail(Integer.toString(i) + " dequeue returned null");
+                    return;
+                }
+            }
+            if (impl.dequeue(queue) != null)
+            {
+                fail("queue not empty after all elements dequeued");
+                return;
+            }
+            // A new thread must get a record again rather than use the lock
+            final boolean[] inserted = new boolean[1];
+            Thread thread = new Thread(() ->
+            {
+                impl.enqueue(queue, 0);
+                inserted[0] = queue.record().state != FlatCombiningTestQueue.RETIRED;
+            });
+            thread.start();
+            thread.join();
+            if (!inserted[0])
+            {
+                fail("records of exited threads were not reclaimed");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+
+    public static void test14(WaitFreeQueue<Integer> impl)
+    {
+        System.out.println(impl.getImplName());
+        System.out.println("Test 14");
+        TestQueue<Integer> queue = impl.newQueue();
+        try
+        {
+            // More short-lived threads than there are thread ids, one after another
+            for (int i = 0; i < 16; ++i)
+            {
+                Worker worker = new Worker(queue, impl, i * 10000);
+                worker.start();
+                worker.join();
+            }
+            // Each worker finished before the next started, so the elements are in order
+            for (int i = 0; i < 16 * 10000; ++i)
+            {
+                Integer value = impl.dequeue(queue);
+                if (value == null || value != i)
+                {
+                    fail(Integer.toString(i) + " dequeued " + value);
+                    return;
+                }
+            }
+            if (impl.dequeue(queue) != null)
+            {
+                fail("queue not empty after all elements dequeued");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            fail(e.getMessage());
+        }
+    }
+}